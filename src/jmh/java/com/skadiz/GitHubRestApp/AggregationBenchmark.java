@@ -0,0 +1,121 @@
+package com.skadiz.GitHubRestApp;
+
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.services.GitHubService;
+import com.skadiz.GitHubRestApp.services.RepositoryCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the aggregation path against a {@link FakeGitHubServer} with configurable latency, repository and
+ * branch counts. {@code caching=false} turns off the listing cache, the conditional request cache and request
+ * coalescing, so every operation pays for the full fan-out; {@code caching=true} measures the cached path.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests test-compile exec:exec}; pass JMH options through
+ * {@code -Djmh.args="..."}, e.g. {@code -Djmh.args="AggregationBenchmark.endpoint -p repositories=500 -prof gc"}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    @Param({"0", "50"})
+    public long latencyMillis;
+
+    @Param({"100"})
+    public int repositories;
+
+    @Param({"5"})
+    public int branches;
+
+    @Param({"false", "true"})
+    public boolean caching;
+
+    private FakeGitHubServer server;
+    private ConfigurableApplicationContext context;
+    private GitHubService gitHubService;
+    private RepositoryCacheService repositoryCacheService;
+    private HttpClient client;
+    private HttpRequest endpointRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = FakeGitHubServer.start(repositories, branches, latencyMillis);
+        // Command line arguments take precedence over application.properties
+        context = new SpringApplicationBuilder(GitRestAppApplication.class)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--github.api.url=" + server.url(),
+                        "--github.rate-limit.enabled=false",
+                        "--github.listing-cache.enabled=" + caching,
+                        "--github.http-cache.enabled=" + caching,
+                        "--github.coalescing.enabled=" + caching);
+        gitHubService = context.getBean(GitHubService.class);
+        repositoryCacheService = context.getBean(RepositoryCacheService.class);
+        client = HttpClient.newHttpClient();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        endpointRequest = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/repositories/octocat"))
+                .header("Accept", "application/json")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    /**
+     * Listing pages only, through {@link GitHubService}.
+     */
+    @Benchmark
+    public List<RepositoryDto> listing() {
+        return gitHubService.getUserRepositories("octocat");
+    }
+
+    /**
+     * Listing plus the branch fan-out, through the service layer the controller uses.
+     */
+    @Benchmark
+    public List<RepositoryDto> aggregation() {
+        return repositoryCacheService.getRepositoriesWithBranches("octocat");
+    }
+
+    /**
+     * The whole HTTP path, including JSON serialization of the response.
+     */
+    @Benchmark
+    public String endpoint() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(endpointRequest, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body();
+    }
+}
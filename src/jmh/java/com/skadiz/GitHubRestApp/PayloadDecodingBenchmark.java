@@ -0,0 +1,69 @@
+package com.skadiz.GitHubRestApp;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.services.GitHubPayloadReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a recorded page of {@code /users/{username}/repos} by binding every field with the
+ * {@link ObjectMapper}, as the message converters did, with the streaming {@link GitHubPayloadReader}.
+ * Run with {@code -Djmh.args="PayloadDecodingBenchmark -prof gc"} to compare the allocation rate per page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadDecodingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private byte[] page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = PayloadDecodingBenchmark.class.getResourceAsStream(
+                "/fixtures/github/users/default/repos.json")) {
+            page = in.readAllBytes();
+        }
+    }
+
+    /**
+     * Full data binding of every field, then filtering of forks.
+     */
+    @Benchmark
+    public List<RepositoryDto> dataBinding() throws IOException {
+        return Arrays.stream(objectMapper.readValue(page, RepositoryDto[].class))
+                .filter(repository -> !repository.isFork())
+                .toList();
+    }
+
+    /**
+     * Streaming decoding of the used fields only, dropping forks while parsing.
+     */
+    @Benchmark
+    public List<RepositoryDto> streaming() throws IOException {
+        return GitHubPayloadReader.readRepositories(new ByteArrayInputStream(page));
+    }
+}
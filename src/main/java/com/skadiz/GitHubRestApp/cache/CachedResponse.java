@@ -0,0 +1,104 @@
+package com.skadiz.GitHubRestApp.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A successful GitHub API response kept for conditional revalidation.
+ *
+ * @param headers the response headers, including the {@code ETag}, {@code Last-Modified} and {@code Link} headers
+ * @param body the raw response body
+ */
+public record CachedResponse(HttpHeaders headers, byte[] body) {
+
+    /**
+     * Creates a cached response holding a read-only copy of the given headers.
+     *
+     * @param headers the response headers
+     * @param body the raw response body
+     */
+    public CachedResponse {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        headers = HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    /**
+     * Returns the entity tag of the response.
+     *
+     * @return the {@code ETag} header value, or null if absent
+     */
+    public String etag() {
+        return headers.getFirst(HttpHeaders.ETAG);
+    }
+
+    /**
+     * Returns the last modification date of the response.
+     *
+     * @return the {@code Last-Modified} header value, or null if absent
+     */
+    public String lastModified() {
+        return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+    }
+
+    /**
+     * Returns the approximate number of bytes this response occupies.
+     *
+     * @return the body length plus an estimate of the header size
+     */
+    public long weight() {
+        long headerBytes = 0;
+        for (var header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                headerBytes += header.getKey().length() + value.length();
+            }
+        }
+        return body.length + 2 * headerBytes;
+    }
+
+    /**
+     * Writes the headers and body of this response in the binary form read by {@link #readFrom(DataInput)}.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(headers.size());
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            out.writeUTF(header.getKey());
+            out.writeInt(header.getValue().size());
+            for (String value : header.getValue()) {
+                out.writeUTF(value);
+            }
+        }
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    /**
+     * Reads a response written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the response
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    public static CachedResponse readFrom(DataInput in) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            int values = in.readInt();
+            for (int j = 0; j < values; j++) {
+                headers.add(name, in.readUTF());
+            }
+        }
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new CachedResponse(headers, body);
+    }
+}
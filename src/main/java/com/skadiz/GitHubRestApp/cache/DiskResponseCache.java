@@ -0,0 +1,481 @@
+package com.skadiz.GitHubRestApp.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of {@link CachedResponse} objects keyed by URL, kept in an append-only log file so that
+ * cached responses and their validators survive a restart.
+ * <ul>
+ *     <li>On startup only the keys are read back to rebuild the index; a response is read from disk the first
+ *     time it is requested. A truncated record left by a crash is discarded.</li>
+ *     <li>Every record carries a checksum, and a record that fails it is dropped when read.</li>
+ *     <li>Replaced and evicted records stay in the file until a background compaction rewrites it, once they
+ *     take up more space than the live records. The live records are copied into a new file without holding
+ *     the lock, and only the records appended meanwhile are copied while swapping the files.</li>
+ *     <li>{@link #putAsync} hands writes to a single background writer, so the response path does not wait
+ *     for the disk; writes are dropped while too many are pending.</li>
+ * </ul>
+ * When the live records exceed the byte limit, the oldest written ones are evicted.
+ * I/O errors after startup are logged and treated as cache misses.
+ */
+public class DiskResponseCache implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(DiskResponseCache.class);
+
+    private static final String FILE_NAME = "responses.log";
+    private static final int MAGIC = 0x47484331;
+    // magic, checksum, key length, response length
+    private static final int RECORD_HEADER_BYTES = 4 * Integer.BYTES;
+    private static final long MIN_GARBAGE_BYTES = 1024 * 1024;
+    private static final int MAX_PENDING_WRITES = 1024;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final Path file;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Location> index = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock compaction = new ReentrantLock();
+    private final ScheduledExecutorService compactor;
+    private final ExecutorService writer;
+    private FileChannel channel;
+    private long end;
+    private long liveBytes;
+    private long hits;
+    private long misses;
+    private long compactions;
+
+    private record Location(long offset, int length) {
+    }
+
+    /**
+     * Opens the cache stored in the given directory, creating it if needed, and schedules its compaction.
+     *
+     * @param directory the directory holding the cache file
+     * @param maxBytes the maximum number of bytes held by all live records together
+     * @param compactionIntervalMillis how often in milliseconds the file is checked for compaction
+     * @throws UncheckedIOException if the cache file cannot be opened
+     */
+    public DiskResponseCache(Path directory, long maxBytes, long compactionIntervalMillis) {
+        this.file = directory.resolve(FILE_NAME);
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            loadIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open disk cache " + file, e);
+        }
+        this.compactor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("disk-cache-compaction").factory());
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded, compactionIntervalMillis, compactionIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_WRITES),
+                Thread.ofPlatform().daemon().name("disk-cache-writer").factory(),
+                (task, executor) -> log.debug("Dropping disk cache write, {} writes pending", MAX_PENDING_WRITES));
+    }
+
+    /**
+     * Reads the response cached for the given key from disk.
+     *
+     * @param key the cache key
+     * @return the cached response, or null if absent or unreadable
+     */
+    public CachedResponse get(String key) {
+        lock.lock();
+        try {
+            Location location = index.get(key);
+            if (location == null) {
+                misses++;
+                return null;
+            }
+            try {
+                ByteBuffer record = ByteBuffer.allocate(location.length());
+                read(channel, record, location.offset());
+                CachedResponse response = decode(key, record.flip());
+                if (response != null) {
+                    hits++;
+                    return response;
+                }
+                log.warn("Dropping corrupted disk cache record for {}", key);
+            } catch (IOException e) {
+                log.warn("Cannot read disk cache record for {}: {}", key, e.getMessage());
+            }
+            unindex(key);
+            misses++;
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a response to the cache file, replacing any response cached for the same key.
+     * Responses larger than the whole cache are not stored.
+     *
+     * @param key the cache key
+     * @param response the response to cache
+     */
+    public void put(String key, CachedResponse response) {
+        ByteBuffer record;
+        try {
+            record = encode(key, response);
+        } catch (IOException e) {
+            log.warn("Cannot encode disk cache record for {}: {}", key, e.getMessage());
+            return;
+        }
+        lock.lock();
+        try {
+            if (record == null) {
+                unindex(key);
+                return;
+            }
+            long offset = end;
+            write(record, offset);
+            end += record.limit();
+            index(key, new Location(offset, record.limit()));
+        } catch (IOException e) {
+            log.warn("Cannot write disk cache record for {}: {}", key, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands a response to the background writer, to be appended to the cache file like {@link #put}.
+     * The write is dropped if too many are already pending.
+     *
+     * @param key the cache key
+     * @param response the response to cache
+     */
+    public void putAsync(String key, CachedResponse response) {
+        writer.execute(() -> put(key, response));
+    }
+
+    /**
+     * Rewrites the cache file if replaced and evicted records take up more space than the live ones.
+     */
+    public void compactIfNeeded() {
+        long garbage;
+        lock.lock();
+        try {
+            garbage = end - liveBytes;
+        } finally {
+            lock.unlock();
+        }
+        if (garbage > liveBytes && garbage > MIN_GARBAGE_BYTES) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the cache file with the live records only. The live records are copied from a snapshot of the
+     * index without holding the lock; the records appended meanwhile are copied when the files are swapped.
+     */
+    public void compact() {
+        compaction.lock();
+        try {
+            FileChannel source;
+            LinkedHashMap<String, Location> snapshot;
+            long snapshotEnd;
+            lock.lock();
+            try {
+                source = channel;
+                snapshot = new LinkedHashMap<>(index);
+                snapshotEnd = end;
+            } finally {
+                lock.unlock();
+            }
+            Path compacted = file.resolveSibling(FILE_NAME + ".compact");
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                Map<String, Location> moved = new LinkedHashMap<>();
+                long position = 0;
+                for (Map.Entry<String, Location> entry : snapshot.entrySet()) {
+                    Location location = entry.getValue();
+                    transfer(source, location.offset(), location.length(), target, position);
+                    moved.put(entry.getKey(), new Location(position, location.length()));
+                    position += location.length();
+                }
+                swap(compacted, target, moved, position, snapshotEnd);
+            } catch (IOException e) {
+                log.warn("Cannot compact disk cache {}: {}", file, e.getMessage());
+            }
+        } finally {
+            compaction.unlock();
+        }
+    }
+
+    /**
+     * Copies the records appended since the snapshot into the compacted file and replaces the cache file with
+     * it. Records indexed before the snapshot were copied already; anything else still indexed lies in the tail.
+     */
+    private void swap(Path compacted, FileChannel target, Map<String, Location> moved, long position,
+                      long snapshotEnd) throws IOException {
+        lock.lock();
+        try {
+            long tail = end - snapshotEnd;
+            transfer(channel, snapshotEnd, tail, target, position);
+            target.force(true);
+            LinkedHashMap<String, Location> remapped = new LinkedHashMap<>();
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                remapped.put(entry.getKey(), location.offset() >= snapshotEnd
+                        ? new Location(location.offset() - snapshotEnd + position, location.length())
+                        : moved.get(entry.getKey()));
+            }
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index.clear();
+            index.putAll(remapped);
+            end = position + tail;
+            compactions++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of live records.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the size of the cache file, including records not compacted away yet.
+     *
+     * @return the file size in bytes
+     */
+    public long fileSizeInBytes() {
+        lock.lock();
+        try {
+            return end;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of responses read from disk.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        lock.lock();
+        try {
+            return hits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found no readable response on disk.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        lock.lock();
+        try {
+            return misses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of times the cache file was compacted.
+     *
+     * @return the compaction count
+     */
+    public long getCompactionCount() {
+        lock.lock();
+        try {
+            return compactions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finishes the pending writes, stops the background compaction and closes the cache file.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Disk cache writes still pending after {} seconds", CLOSE_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactor.shutdownNow();
+        lock.lock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Cannot close disk cache {}: {}", file, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the record headers and keys, and cuts off a truncated record at the end.
+     */
+    private void loadIndex() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        while (position + RECORD_HEADER_BYTES <= size) {
+            read(channel, header.clear(), position);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                break;
+            }
+            header.getInt();
+            int keyLength = header.getInt();
+            int responseLength = header.getInt();
+            long length = (long) RECORD_HEADER_BYTES + keyLength + responseLength;
+            if (keyLength < 0 || responseLength < 0 || position + length > size) {
+                break;
+            }
+            ByteBuffer key = ByteBuffer.allocate(keyLength);
+            read(channel, key, position + RECORD_HEADER_BYTES);
+            index(new String(key.array(), StandardCharsets.UTF_8), new Location(position, (int) length));
+            position += length;
+        }
+        if (position < size) {
+            log.warn("Discarding {} bytes of truncated disk cache {}", size - position, file);
+            channel.truncate(position);
+        }
+        end = position;
+    }
+
+    private void index(String key, Location location) {
+        unindex(key);
+        index.put(key, location);
+        liveBytes += location.length();
+        Iterator<Location> oldest = index.values().iterator();
+        while (liveBytes > maxBytes && oldest.hasNext()) {
+            liveBytes -= oldest.next().length();
+            oldest.remove();
+        }
+    }
+
+    private void unindex(String key) {
+        Location previous = index.remove(key);
+        if (previous != null) {
+            liveBytes -= previous.length();
+        }
+    }
+
+    private ByteBuffer encode(String key, CachedResponse response) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(responseBytes)) {
+            response.writeTo(out);
+        }
+        long length = (long) RECORD_HEADER_BYTES + keyBytes.length + responseBytes.size();
+        if (length > maxBytes || length > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate((int) length)
+                .putInt(MAGIC)
+                .putInt(0)
+                .putInt(keyBytes.length)
+                .putInt(responseBytes.size())
+                .put(keyBytes)
+                .put(responseBytes.toByteArray());
+        record.putInt(Integer.BYTES, checksum(record.array()));
+        return record.flip();
+    }
+
+    /**
+     * Decodes a record read from disk.
+     *
+     * @return the response, or null if the record is not the expected one or fails its checksum
+     */
+    private static CachedResponse decode(String key, ByteBuffer record) throws IOException {
+        if (record.getInt() != MAGIC || record.getInt() != checksum(record.array())) {
+            return null;
+        }
+        int keyLength = record.getInt();
+        int responseLength = record.getInt();
+        if (!key.equals(new String(record.array(), record.position(), keyLength, StandardCharsets.UTF_8))) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(record.array(), record.position() + keyLength, responseLength))) {
+            return CachedResponse.readFrom(in);
+        }
+    }
+
+    /**
+     * Computes the checksum of everything in a record after the magic number and the checksum itself.
+     */
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 2 * Integer.BYTES, record.length - 2 * Integer.BYTES);
+        return (int) crc.getValue();
+    }
+
+    private void read(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of disk cache " + file);
+            }
+        }
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static void transfer(FileChannel source, long offset, long length, FileChannel target, long position)
+            throws IOException {
+        long copied = 0;
+        while (copied < length) {
+            copied += source.transferTo(offset + copied, length - copied, target.position(position + copied));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.skadiz.GitHubRestApp.cache;
+
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The repository listing of a user together with its JSON response, encoded once when the listing is assembled
+ * so that serving it again costs no serialization.
+ *
+ * @param repositories the repositories with their branches
+ * @param json the listing serialized as a JSON array
+ * @param gzip the JSON compressed with gzip, or null if it is too small to be worth compressing
+ * @param digest the hex digest of the JSON the entity tags are derived from
+ * @param assembledAt when the listing was assembled from GitHub
+ * @param lastModified when the content of the listing last changed, to the second
+ */
+public record EncodedListing(List<RepositoryDto> repositories, byte[] json, byte[] gzip, String digest,
+                             Instant assembledAt, Instant lastModified) {
+
+    /**
+     * Returns the strong entity tag of one encoding of the listing. Each encoding is a different representation,
+     * so the gzip one has its own tag.
+     *
+     * @param compressed whether the tag is for the gzip encoding
+     * @return the quoted entity tag
+     */
+    public String eTag(boolean compressed) {
+        return compressed ? "\"" + digest + "-gzip\"" : "\"" + digest + "\"";
+    }
+}
@@ -0,0 +1,105 @@
+package com.skadiz.GitHubRestApp.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of {@link CachedResponse} objects keyed by URL, bounded by the total number of bytes held.
+ * When a new entry pushes the total over the limit, the least recently used entries are evicted.
+ */
+public class LruResponseCache {
+    private final long maxBytes;
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+    private long evictions;
+
+    /**
+     * Constructs a new LruResponseCache.
+     *
+     * @param maxBytes the maximum number of bytes held by all entries together
+     */
+    public LruResponseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the entry cached for the given key and marks it as recently used.
+     *
+     * @param key the cache key
+     * @return the cached response, or null if absent
+     */
+    public synchronized CachedResponse get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores an entry, evicting the least recently used entries as needed.
+     * Entries larger than the whole cache are not stored.
+     *
+     * @param key the cache key
+     * @param response the response to cache
+     */
+    public synchronized void put(String key, CachedResponse response) {
+        long weight = weigh(key, response);
+        if (weight > maxBytes) {
+            remove(key);
+            return;
+        }
+        CachedResponse previous = entries.put(key, response);
+        if (previous != null) {
+            currentBytes -= weigh(key, previous);
+        }
+        currentBytes += weight;
+        Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, CachedResponse> entry = eldest.next();
+            currentBytes -= weigh(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes the entry cached for the given key.
+     *
+     * @param key the cache key
+     */
+    public synchronized void remove(String key) {
+        CachedResponse previous = entries.remove(key);
+        if (previous != null) {
+            currentBytes -= weigh(key, previous);
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of bytes currently held by all entries.
+     *
+     * @return the total weight of the cached entries
+     */
+    public synchronized long sizeInBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the byte limit.
+     *
+     * @return the eviction count
+     */
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    private static long weigh(String key, CachedResponse response) {
+        return 2L * key.length() + response.weight();
+    }
+}
@@ -0,0 +1,62 @@
+package com.skadiz.GitHubRestApp.cache;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link SharedCache} stored in Redis. Locks are keys set with {@code SET NX PX}, and are released by a
+ * script that deletes the key only if it still holds the caller's owner id, so an expired lease that was
+ * taken over by another replica is never released by mistake.
+ */
+public class RedisSharedCache implements SharedCache {
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+            Long.class);
+
+    private final RedisTemplate<String, byte[]> redis;
+    private final String keyPrefix;
+
+    /**
+     * Constructs a new RedisSharedCache.
+     *
+     * @param redis the template storing values as raw bytes under string keys
+     * @param keyPrefix the prefix of every key written by this application
+     */
+    public RedisSharedCache(RedisTemplate<String, byte[]> redis, String keyPrefix) {
+        this.redis = redis;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return redis.opsForValue().get(keyPrefix + key);
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration timeToLive) {
+        redis.opsForValue().set(keyPrefix + key, value, timeToLive);
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration lease) {
+        return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(lockKey(key), bytes(owner), lease));
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        redis.execute(UNLOCK, List.of(lockKey(key)), (Object) bytes(owner));
+    }
+
+    private String lockKey(String key) {
+        return keyPrefix + "lock:" + key;
+    }
+
+    private static byte[] bytes(String owner) {
+        return owner.getBytes(StandardCharsets.UTF_8);
+    }
+}
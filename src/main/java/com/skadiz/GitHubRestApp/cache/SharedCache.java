@@ -0,0 +1,47 @@
+package com.skadiz.GitHubRestApp.cache;
+
+import java.time.Duration;
+
+/**
+ * Key-value store shared by all replicas of the application, with leased locks so that only one replica
+ * refreshes a given key at a time. Implementations may throw a {@link RuntimeException} when the store is
+ * unreachable; callers treat that as the store being absent.
+ */
+public interface SharedCache {
+
+    /**
+     * Returns the value stored for the given key.
+     *
+     * @param key the cache key
+     * @return the stored value, or null if absent or expired
+     */
+    byte[] get(String key);
+
+    /**
+     * Stores a value that expires after the given time.
+     *
+     * @param key the cache key
+     * @param value the value to store
+     * @param timeToLive how long the value is kept
+     */
+    void put(String key, byte[] value, Duration timeToLive);
+
+    /**
+     * Takes the lock of the given key unless another owner holds it. The lock is released automatically
+     * once the lease runs out, so a replica that dies while holding it does not block the others.
+     *
+     * @param key the cache key
+     * @param owner the identifier of the replica taking the lock
+     * @param lease how long the lock is held at most
+     * @return true if the lock was taken
+     */
+    boolean tryLock(String key, String owner, Duration lease);
+
+    /**
+     * Releases the lock of the given key if the given owner still holds it.
+     *
+     * @param key the cache key
+     * @param owner the identifier of the replica that took the lock
+     */
+    void unlock(String key, String owner);
+}
@@ -0,0 +1,300 @@
+package com.skadiz.GitHubRestApp.cache;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Size-bounded in-memory cache with a time-to-live and stale-while-revalidate semantics.
+ * <ul>
+ *     <li>An entry younger than the TTL is returned as is.</li>
+ *     <li>An entry older than the TTL, but still within the stale window, is returned at once while a single
+ *     background refresh replaces it.</li>
+ *     <li>A missing entry, or one older than the stale window, is loaded on the calling thread; concurrent
+ *     callers for the same key wait for that one load instead of starting their own.</li>
+ * </ul>
+ * At most one load, refresh or background refresh of a key runs at a time, so an older result never
+ * replaces a newer one.
+ * Failed loads are not cached. When the cache holds more entries than allowed, the least recently used
+ * ones are evicted. The loader is given the value held for the key, whatever its age, so that it can
+ * reuse the parts that did not change.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class StaleWhileRevalidateCache<K, V> {
+    private final BiFunction<K, V, V> loader;
+    private final Executor refreshExecutor;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final Clock clock;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs a new StaleWhileRevalidateCache.
+     *
+     * @param loader the function loading the value of a key
+     * @param refreshExecutor the executor running background refreshes
+     * @param maxEntries the maximum number of entries kept
+     * @param ttlMillis how long in milliseconds an entry is served without a refresh
+     * @param staleMillis how long in milliseconds after the TTL an entry is still served while it is refreshed
+     * @param clock the clock used to age entries
+     */
+    public StaleWhileRevalidateCache(Function<K, V> loader, Executor refreshExecutor, int maxEntries,
+                                     long ttlMillis, long staleMillis, Clock clock) {
+        this((key, previous) -> loader.apply(key), refreshExecutor, maxEntries, ttlMillis, staleMillis, clock);
+    }
+
+    /**
+     * Constructs a new StaleWhileRevalidateCache whose loader is given the value previously held for a key.
+     *
+     * @param loader the function loading the value of a key from the previous value, or {@code null} if none is held
+     * @param refreshExecutor the executor running background refreshes
+     * @param maxEntries the maximum number of entries kept
+     * @param ttlMillis how long in milliseconds an entry is served without a refresh
+     * @param staleMillis how long in milliseconds after the TTL an entry is still served while it is refreshed
+     * @param clock the clock used to age entries
+     */
+    public StaleWhileRevalidateCache(BiFunction<K, V, V> loader, Executor refreshExecutor, int maxEntries,
+                                     long ttlMillis, long staleMillis, Clock clock) {
+        this.loader = loader;
+        this.refreshExecutor = refreshExecutor;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.staleMillis = staleMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the value of the given key, loading or refreshing it as needed.
+     *
+     * @param key the key
+     * @return the cached or freshly loaded value
+     * @throws RuntimeException the exception thrown by the loader if the value had to be loaded synchronously
+     */
+    public V get(K key) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        while (true) {
+            try {
+                return join(load(key));
+            } catch (RefreshFailedException e) {
+                // The refresh this caller waited for failed on its own account; load the value instead
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the given key if a fresh or stale entry is held, refreshing a stale entry
+     * in the background. Never loads the value synchronously.
+     *
+     * @param key the key
+     * @return the cached value, or {@code null} if the key has to be loaded
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = lookup(key);
+        long now = clock.millis();
+        if (entry != null) {
+            long age = now - entry.loadedAt();
+            if (age < ttlMillis) {
+                hits.incrementAndGet();
+                return entry.value();
+            }
+            if (age < ttlMillis + staleMillis) {
+                staleHits.incrementAndGet();
+                refreshAsync(key);
+                return entry.value();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Starts a background refresh of the given key unless one is already running.
+     *
+     * @param key the key
+     */
+    public void refreshAsync(K key) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, created) == null) {
+            try {
+                refreshExecutor.execute(() -> complete(key, created));
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key, created);
+                created.completeExceptionally(new RefreshFailedException());
+            }
+        }
+    }
+
+    /**
+     * Loads the value of the given key on the calling thread and replaces its entry, or waits for the load
+     * already running for the key. Callers waiting for this refresh get its value, but if it fails, for instance
+     * because its calls were shed, they load the value themselves instead of failing with it.
+     *
+     * @param key the key
+     * @return the freshly loaded value
+     * @throws RuntimeException the exception thrown by the loader
+     */
+    public V refresh(K key) {
+        while (true) {
+            CompletableFuture<V> created = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                try {
+                    return join(existing);
+                } catch (RefreshFailedException e) {
+                    continue;
+                }
+            }
+            try {
+                V value = loader.apply(key, peek(key));
+                store(key, value);
+                inFlight.remove(key, created);
+                created.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                inFlight.remove(key, created);
+                created.completeExceptionally(new RefreshFailedException());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the value held for the given key whatever its age, without loading or refreshing it.
+     *
+     * @param key the key
+     * @return the held value, or {@code null} if no entry is held
+     */
+    public V peek(K key) {
+        Entry<V> entry = lookup(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    /**
+     * Returns how long ago the entry of the given key was loaded.
+     *
+     * @param key the key
+     * @return the age in milliseconds, or -1 if no entry is held
+     */
+    public long ageOf(K key) {
+        Entry<V> entry = lookup(key);
+        return entry != null ? clock.millis() - entry.loadedAt() : -1;
+    }
+
+    /**
+     * Returns the number of requests answered with a fresh entry.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of requests answered with a stale entry while it was refreshed.
+     *
+     * @return the stale hit count
+     */
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    /**
+     * Returns the number of requests that had to wait for a load.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of entries held.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private CompletableFuture<V> load(K key) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        complete(key, created);
+        return created;
+    }
+
+    private void complete(K key, CompletableFuture<V> future) {
+        try {
+            V value = loader.apply(key, peek(key));
+            store(key, value);
+            future.complete(value);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private synchronized Entry<V> lookup(K key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.millis()));
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+
+    /**
+     * Tells the callers waiting for a refresh that it failed or was never started, and that they should load
+     * the value themselves.
+     */
+    private static class RefreshFailedException extends RuntimeException {
+        RefreshFailedException() {
+            super(null, null, false, false);
+        }
+    }
+}
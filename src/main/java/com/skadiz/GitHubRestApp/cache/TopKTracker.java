@@ -0,0 +1,98 @@
+package com.skadiz.GitHubRestApp.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded sketch of the most frequent keys in a stream, using the Space-Saving algorithm.
+ * At most {@code capacity} keys are counted; a new key replaces the least counted one and inherits its count,
+ * so a key occurring more than once in every {@code capacity} records cannot be missed. Keys are ranked by the
+ * occurrences they are guaranteed to have had, so a newcomer's inherited count does not rank it above them.
+ * {@link #decay()} halves every count, so the sketch follows what is popular now rather than since startup.
+ *
+ * @param <K> the key type
+ */
+public class TopKTracker<K> {
+    private final int capacity;
+    private final Map<K, Counter> counters = new HashMap<>();
+
+    /**
+     * Occurrences counted for a key, of which {@code error} were inherited from the key it replaced.
+     */
+    private record Counter(long count, long error) {
+        long guaranteed() {
+            return count - error;
+        }
+    }
+
+    /**
+     * Constructs a new TopKTracker.
+     *
+     * @param capacity the maximum number of keys counted
+     */
+    public TopKTracker(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Counts one occurrence of the given key.
+     *
+     * @param key the key
+     */
+    public synchronized void record(K key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counters.put(key, new Counter(counter.count() + 1, counter.error()));
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(1, 0));
+            return;
+        }
+        Map.Entry<K, Counter> least = null;
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            if (least == null || entry.getValue().count() < least.getValue().count()) {
+                least = entry;
+            }
+        }
+        long inherited = least.getValue().count();
+        counters.remove(least.getKey());
+        counters.put(key, new Counter(inherited + 1, inherited));
+    }
+
+    /**
+     * Returns the most frequent keys, most frequent first.
+     *
+     * @param count the maximum number of keys returned
+     * @return the top keys
+     */
+    public synchronized List<K> top(int count) {
+        List<Map.Entry<K, Counter>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<K, Counter> entry) -> entry.getValue().guaranteed())
+                .reversed());
+        return entries.stream().limit(count).map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * Halves every count and forgets the keys whose count drops to zero.
+     */
+    public synchronized void decay() {
+        counters.replaceAll((key, counter) -> new Counter(counter.count() / 2, counter.error() / 2));
+        counters.values().removeIf(counter -> counter.count() == 0);
+    }
+
+    /**
+     * Returns the number of keys counted.
+     *
+     * @return the key count
+     */
+    public synchronized int size() {
+        return counters.size();
+    }
+}
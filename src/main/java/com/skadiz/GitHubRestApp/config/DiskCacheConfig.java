@@ -0,0 +1,37 @@
+package com.skadiz.GitHubRestApp.config;
+
+import com.skadiz.GitHubRestApp.cache.DiskResponseCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration class for the persistent second-level cache of GitHub API responses.
+ * It is only created when {@code github.disk-cache.enabled=true}; the directory should be on a volume that
+ * outlives the container, so a restarted instance revalidates its cached responses instead of fetching them again.
+ */
+@Configuration
+@ConditionalOnProperty(name = "github.disk-cache.enabled", havingValue = "true")
+public class DiskCacheConfig {
+
+    @Value("${github.disk-cache.directory}")
+    private String directory;
+
+    @Value("${github.disk-cache.max-bytes}")
+    private long maxBytes;
+
+    @Value("${github.disk-cache.compaction-interval-ms}")
+    private long compactionIntervalMillis;
+
+    /**
+     * Opens the disk cache, reading back the index of the responses stored by a previous run.
+     * @return a {@link DiskResponseCache} stored in the configured directory
+     */
+    @Bean(destroyMethod = "close")
+    public DiskResponseCache diskResponseCache() {
+        return new DiskResponseCache(Path.of(directory), maxBytes, compactionIntervalMillis);
+    }
+}
@@ -0,0 +1,26 @@
+package com.skadiz.GitHubRestApp.config;
+
+import com.skadiz.GitHubRestApp.util.PriorityPropagatingExecutorService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration class for the executor used to run GitHub API calls concurrently.
+ * Every submitted task runs on its own virtual thread, so blocking on a slow GitHub response
+ * does not tie up a platform thread. Tasks inherit the request priority of the submitting thread.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Creates the executor shared by all concurrent GitHub API calls.
+     * @return an {@link ExecutorService} that starts a new virtual thread for each task
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService gitHubExecutor() {
+        return new PriorityPropagatingExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,109 @@
+package com.skadiz.GitHubRestApp.config;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Configuration class for the HTTP transport used to call the GitHub API.
+ * Connections are pooled and kept alive between calls, so most requests skip the TCP and TLS handshakes.
+ * Pool limits, timeouts and gzip compression are configured through the {@code github.http.*} properties.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${github.http.max-connections}")
+    private int maxConnections;
+
+    @Value("${github.http.max-connections-per-route}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${github.http.connect-timeout-ms}")
+    private long connectTimeoutMillis;
+
+    @Value("${github.http.read-timeout-ms}")
+    private long readTimeoutMillis;
+
+    @Value("${github.http.connection-request-timeout-ms}")
+    private long connectionRequestTimeoutMillis;
+
+    @Value("${github.http.idle-timeout-ms}")
+    private long idleTimeoutMillis;
+
+    @Value("${github.http.time-to-live-ms}")
+    private long timeToLiveMillis;
+
+    @Value("${github.http.compression.enabled}")
+    private boolean compressionEnabled;
+
+    /**
+     * Creates the pooled HTTP client used for all GitHub API calls.
+     * @return a {@link CloseableHttpClient} backed by a keep-alive connection pool
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient gitHubHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                        .setTimeToLive(TimeValue.ofMilliseconds(timeToLiveMillis))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMillis))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                        .build())
+                .setRetryStrategy(new IoOnlyRetryStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeoutMillis));
+        if (!compressionEnabled) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Retries idempotent requests once after an I/O error such as a stale pooled connection, but never retries
+     * on a response status: 429 and 503 answers are left to the rate limit scheduler instead of sleeping here.
+     */
+    private static class IoOnlyRetryStrategy extends DefaultHttpRequestRetryStrategy {
+        IoOnlyRetryStrategy() {
+            super(1, TimeValue.ZERO_MILLISECONDS);
+        }
+
+        @Override
+        public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates the request factory that lets {@link org.springframework.web.client.RestTemplate} use the pooled client.
+     * @param gitHubHttpClient the pooled HTTP client
+     * @return a {@link ClientHttpRequestFactory} backed by Apache HttpClient
+     */
+    @Bean
+    public ClientHttpRequestFactory gitHubRequestFactory(HttpClient gitHubHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(gitHubHttpClient);
+    }
+}
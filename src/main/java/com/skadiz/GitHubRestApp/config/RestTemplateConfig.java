@@ -1,35 +1,53 @@
 package com.skadiz.GitHubRestApp.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.skadiz.GitHubRestApp.interceptors.CoalescingInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.ETagCacheInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.MetricsInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.RateLimitInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.ResilienceInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.SharedCacheInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Collections;
+import java.util.List;
 
 /**
  * Configuration class for creating and configuring {@link RestTemplate}.
- * This class configures {@link RestTemplate} to add an authentication token to the headers of all outgoing requests.
- * The token is used to perform authenticated requests to the GitHub API, allowing for a higher request limit.
+ * Concurrent identical calls are coalesced by the {@link CoalescingInterceptor}, then answered from the cache
+ * shared by all replicas when the {@link SharedCacheInterceptor} has a fresh response. Responses are cached by the
+ * {@link ETagCacheInterceptor} so repeated calls become conditional requests. Every call that reaches GitHub is
+ * paced by the {@link RateLimitInterceptor}, which also authenticates it with one of the configured API tokens,
+ * allowing for a higher request limit. Only then does the {@link ResilienceInterceptor} refuse calls while GitHub
+ * is failing or too many calls are in flight, so calls waiting for their turn under the rate limit do not hold a
+ * bulkhead slot. The {@link MetricsInterceptor} then times the call itself.
  */
 @Configuration
 public class RestTemplateConfig {
 
-    @Value("${github.api.token}")
-    private String githubApiToken;
-
-
     /**
      * Creates and configures a {@link RestTemplate}.
-     * @return a configured {@link RestTemplate} with the authentication token added to the request headers
+     * @param gitHubRequestFactory the pooled transport configured by {@link HttpClientConfig}
+     * @param coalescingInterceptor the interceptor coalescing concurrent identical calls
+     * @param sharedCacheInterceptor the interceptor sharing responses between replicas
+     * @param eTagCacheInterceptor the interceptor turning repeated calls into conditional requests
+     * @param resilienceInterceptor the interceptor applying the bulkhead and circuit breakers
+     * @param rateLimitInterceptor the interceptor pacing and authenticating calls
+     * @param metricsInterceptor the interceptor timing calls sent to GitHub
+     * @return a configured {@link RestTemplate}
      */
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
-        restTemplate.setInterceptors(Collections.singletonList((request, body, execution) -> {
-            request.getHeaders().add("Authorization", "token " + githubApiToken);
-            return execution.execute(request, body);
-        }));
+    public RestTemplate restTemplate(ClientHttpRequestFactory gitHubRequestFactory,
+                                     CoalescingInterceptor coalescingInterceptor,
+                                     SharedCacheInterceptor sharedCacheInterceptor,
+                                     ETagCacheInterceptor eTagCacheInterceptor,
+                                     ResilienceInterceptor resilienceInterceptor,
+                                     RateLimitInterceptor rateLimitInterceptor,
+                                     MetricsInterceptor metricsInterceptor) {
+        RestTemplate restTemplate = new RestTemplate(gitHubRequestFactory);
+        restTemplate.setInterceptors(List.of(coalescingInterceptor, sharedCacheInterceptor, eTagCacheInterceptor,
+                rateLimitInterceptor, resilienceInterceptor, metricsInterceptor));
         return restTemplate;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.skadiz.GitHubRestApp.config;
+
+import com.skadiz.GitHubRestApp.cache.RedisSharedCache;
+import com.skadiz.GitHubRestApp.cache.SharedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Configuration class for the cache of GitHub API responses shared by all replicas.
+ * It is only created when {@code github.shared-cache.enabled=true}, and stores the responses in the Redis
+ * server configured by the {@code spring.data.redis.*} properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "github.shared-cache.enabled", havingValue = "true")
+public class SharedCacheConfig {
+
+    @Value("${github.shared-cache.key-prefix}")
+    private String keyPrefix;
+
+    /**
+     * Creates the shared cache.
+     * @param connectionFactory the Redis connection factory configured by Spring Boot
+     * @return a {@link SharedCache} backed by Redis
+     */
+    @Bean
+    public SharedCache sharedCache(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> redis = new RedisTemplate<>();
+        redis.setConnectionFactory(connectionFactory);
+        redis.setKeySerializer(RedisSerializer.string());
+        redis.setValueSerializer(RedisSerializer.byteArray());
+        redis.afterPropertiesSet();
+        return new RedisSharedCache(redis, keyPrefix);
+    }
+}
@@ -0,0 +1,87 @@
+package com.skadiz.GitHubRestApp.config;
+
+import com.skadiz.GitHubRestApp.interceptors.MetricsExchangeFilter;
+import com.skadiz.GitHubRestApp.interceptors.RateLimitExchangeFilter;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the non-blocking {@link WebClient} used by the reactive pipeline to call the GitHub API.
+ * It shares the {@code github.http.*} pool limits and timeouts with {@link HttpClientConfig}, and is paced and
+ * authenticated by the {@link RateLimitExchangeFilter} and timed by the {@link MetricsExchangeFilter}.
+ */
+@Configuration
+public class WebClientConfig {
+
+    /**
+     * Listing pages of 100 repositories exceed the default 256 KB codec buffer.
+     */
+    private static final int MAX_IN_MEMORY_BYTES = 16 * 1024 * 1024;
+
+    @Value("${github.http.max-connections}")
+    private int maxConnections;
+
+    @Value("${github.http.connect-timeout-ms}")
+    private int connectTimeoutMillis;
+
+    @Value("${github.http.read-timeout-ms}")
+    private long readTimeoutMillis;
+
+    @Value("${github.http.connection-request-timeout-ms}")
+    private long connectionRequestTimeoutMillis;
+
+    @Value("${github.http.idle-timeout-ms}")
+    private long idleTimeoutMillis;
+
+    @Value("${github.http.time-to-live-ms}")
+    private long timeToLiveMillis;
+
+    @Value("${github.http.compression.enabled}")
+    private boolean compressionEnabled;
+
+    /**
+     * Creates the keep-alive connection pool of the reactive GitHub client.
+     * @return a {@link ConnectionProvider} limited by the {@code github.http.*} properties
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider gitHubConnectionProvider() {
+        return ConnectionProvider.builder("github")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(connectionRequestTimeoutMillis))
+                .maxIdleTime(Duration.ofMillis(idleTimeoutMillis))
+                .maxLifeTime(Duration.ofMillis(timeToLiveMillis))
+                .build();
+    }
+
+    /**
+     * Creates the reactive client used for GitHub API calls.
+     * @param builder the builder preconfigured with the application's JSON codecs
+     * @param gitHubConnectionProvider the connection pool
+     * @param rateLimitExchangeFilter the filter pacing and authenticating calls
+     * @param metricsExchangeFilter the filter timing calls sent to GitHub
+     * @return a configured {@link WebClient}
+     */
+    @Bean
+    public WebClient gitHubWebClient(WebClient.Builder builder, ConnectionProvider gitHubConnectionProvider,
+                                     RateLimitExchangeFilter rateLimitExchangeFilter,
+                                     MetricsExchangeFilter metricsExchangeFilter) {
+        HttpClient httpClient = HttpClient.create(gitHubConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(readTimeoutMillis))
+                .compress(compressionEnabled);
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_BYTES))
+                .filter(rateLimitExchangeFilter)
+                .filter(metricsExchangeFilter)
+                .build();
+    }
+}
@@ -1,58 +1,337 @@
 package com.skadiz.GitHubRestApp.controllers;
 
-import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skadiz.GitHubRestApp.cache.EncodedListing;
+import com.skadiz.GitHubRestApp.dto.BatchRequestDto;
+import com.skadiz.GitHubRestApp.dto.BranchChangeDto;
 import com.skadiz.GitHubRestApp.dto.RepositoryDto;
-import com.skadiz.GitHubRestApp.services.GitHubService;
+import com.skadiz.GitHubRestApp.services.BatchRepositoryService;
+import com.skadiz.GitHubRestApp.services.BranchChangeFeed;
+import com.skadiz.GitHubRestApp.services.RepositoryCacheService;
+import com.skadiz.GitHubRestApp.services.RepositoryQuery;
+import com.skadiz.GitHubRestApp.services.RepositoryStream;
 import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Rest Controller for handling GitHub repository requests.
+ * Repositories are returned as one JSON array, or streamed as they are assembled: as a chunked JSON array
+ * with {@code ?stream=true}, or as newline-delimited JSON with {@code Accept: application/x-ndjson}.
+ * {@code POST /api/repositories:batch} serves many users in one request, one NDJSON line per user.
+ * The JSON array is written from the bytes encoded when the listing was cached, gzip-compressed for clients
+ * that accept it, and answered with {@code 304 Not Modified} when the client already holds it. Its
+ * {@code Cache-Control} lets clients and shared caches reuse it for as long as the cached listing stays fresh.
+ * All three can be narrowed with {@code name}, {@code branch}, {@code fields}, {@code page} and {@code size}
+ * parameters, which select repositories before their branches are looked up.
+ * {@code GET /api/repositories/{username}/events} pushes the branch heads that move as server-sent events,
+ * so clients no longer poll the listing to detect new commits.
  */
 @RestController
 @RequestMapping("/api")
 public class GitHubController {
-    private final GitHubService gitHubService;
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final RepositoryCacheService repositoryCacheService;
+    private final BatchRepositoryService batchRepositoryService;
+    private final BranchChangeFeed branchChangeFeed;
+    private final ObjectMapper objectMapper;
+    private final long changeFeedTimeoutMillis;
 
     /**
-     * Constructs a new GitHubController with the given GitHubService.
+     * Constructs a new GitHubController with the given RepositoryCacheService.
      *
-     * @param gitHubService the service to interact with GitHub API
+     * @param repositoryCacheService the service serving cached repositories together with their branches
+     * @param batchRepositoryService the service serving the repositories of many users at once
+     * @param branchChangeFeed the feed notifying subscribers of moved branch heads
+     * @param objectMapper the mapper used to write streamed repositories
+     * @param changeFeedTimeoutMillis how long in milliseconds an event stream stays open before the client
+     *                                reconnects
      */
     @Autowired
-    public GitHubController(GitHubService gitHubService) {
-        this.gitHubService = gitHubService;
+    public GitHubController(RepositoryCacheService repositoryCacheService,
+                            BatchRepositoryService batchRepositoryService, BranchChangeFeed branchChangeFeed,
+                            ObjectMapper objectMapper,
+                            @Value("${github.change-feed.timeout-ms}") long changeFeedTimeoutMillis) {
+        this.repositoryCacheService = repositoryCacheService;
+        this.batchRepositoryService = batchRepositoryService;
+        this.branchChangeFeed = branchChangeFeed;
+        this.objectMapper = objectMapper;
+        this.changeFeedTimeoutMillis = changeFeedTimeoutMillis;
     }
 
     /**
      * Retrieves the non-fork repositories of a given GitHub user along with their branches and last commit SHAs.
      *
+     * With query parameters, only the selected repositories, branches and fields are served; such a response
+     * carries an entity tag of its own but is not cached, neither here nor by clients.
+     *
      * @param username the GitHub username
      * @param acceptHeader the Accept header, should be "application/json"
-     * @return a ResponseEntity containing the list of repositories with branches or an error message
+     * @param acceptEncoding the Accept-Encoding header, if any
+     * @param names glob patterns of the repository names to serve, matched case-insensitively
+     * @param branches glob patterns of the branch names to serve
+     * @param fields the comma-separated repository fields to serve, out of name, owner, branches and fork
+     * @param page the 1-based page of repositories to serve
+     * @param size the number of repositories per page, at most {@value RepositoryQuery#MAX_PAGE_SIZE}
+     * @return a ResponseEntity containing the list of repositories with branches or an error message; the
+     * framework turns it into {@code 304 Not Modified} when {@code If-None-Match} holds its entity tag or,
+     * without {@code If-None-Match}, when {@code If-Modified-Since} is not older than its last modification
      */
     @GetMapping("/repositories/{username}")
-    public ResponseEntity<?> getRepositories(@PathVariable String username, @RequestHeader("Accept") String acceptHeader) {
+    public ResponseEntity<?> getRepositories(@PathVariable String username, @RequestHeader("Accept") String acceptHeader,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                             String acceptEncoding,
+                                             @RequestParam(value = "name", required = false) List<String> names,
+                                             @RequestParam(value = "branch", required = false) List<String> branches,
+                                             @RequestParam(required = false) String fields,
+                                             @RequestParam(required = false) Integer page,
+                                             @RequestParam(required = false) Integer size) {
         if (!"application/json".equals(acceptHeader)) {
-            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).body("Accept header must be 'application/json'");
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                    .body("Accept header must be 'application/json' or 'application/x-ndjson'");
         }
+        RepositoryQuery query = RepositoryQuery.of(names, branches, fields, page, size);
 
         try {
-            List<RepositoryDto> repositories = gitHubService.getUserRepositories(username);
-            for (RepositoryDto repository : repositories) {
-                List<BranchDto> branches = gitHubService.getRepositoryBranches(username, repository.getName());
-                repository.setBranches(branches);
+            if (!query.isAll()) {
+                byte[] json = write(repositoryCacheService.getRepositoriesWithBranches(username, query), query);
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .eTag("\"" + DigestUtils.md5DigestAsHex(json) + "\"")
+                        .cacheControl(CacheControl.noCache())
+                        .body(json);
+            }
+            EncodedListing listing = repositoryCacheService.getEncodedRepositories(username);
+            boolean compressed = listing.gzip() != null && acceptsGzip(acceptEncoding);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(listing.eTag(compressed))
+                    .lastModified(listing.lastModified())
+                    .cacheControl(CacheControl.maxAge(repositoryCacheService.remainingTimeToLive(listing))
+                            .cachePublic())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (compressed) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
             }
-            return ResponseEntity.ok(repositories);
+            return response.body(compressed ? listing.gzip() : listing.json());
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("status", 404, "message", "User not found"));
         }
     }
+
+    /**
+     * Streams the non-fork repositories of a given GitHub user as a JSON array, writing each repository
+     * as soon as its branches arrive.
+     *
+     * @param username the GitHub username
+     * @param names glob patterns of the repository names to serve, matched case-insensitively
+     * @param branches glob patterns of the branch names to serve
+     * @param fields the comma-separated repository fields to serve, out of name, owner, branches and fork
+     * @param page the 1-based page of repositories to serve
+     * @param size the number of repositories per page, at most {@value RepositoryQuery#MAX_PAGE_SIZE}
+     * @return a ResponseEntity streaming the repositories with branches
+     */
+    @GetMapping(value = "/repositories/{username}", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRepositories(
+            @PathVariable String username,
+            @RequestParam(value = "name", required = false) List<String> names,
+            @RequestParam(value = "branch", required = false) List<String> branches,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        RepositoryQuery query = RepositoryQuery.of(names, branches, fields, page, size);
+        // Errors up to the first listing page are still reported with a proper status
+        RepositoryStream repositories = repositoryCacheService.streamRepositoriesWithBranches(username, query);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(write(repositories, query, false));
+    }
+
+    /**
+     * Streams the non-fork repositories of a given GitHub user as newline-delimited JSON, one repository
+     * per line, writing each repository as soon as its branches arrive.
+     *
+     * @param username the GitHub username
+     * @param names glob patterns of the repository names to serve, matched case-insensitively
+     * @param branches glob patterns of the branch names to serve
+     * @param fields the comma-separated repository fields to serve, out of name, owner, branches and fork
+     * @param page the 1-based page of repositories to serve
+     * @param size the number of repositories per page, at most {@value RepositoryQuery#MAX_PAGE_SIZE}
+     * @return a ResponseEntity streaming the repositories with branches
+     */
+    @GetMapping(value = "/repositories/{username}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamRepositoriesAsNdjson(
+            @PathVariable String username,
+            @RequestParam(value = "name", required = false) List<String> names,
+            @RequestParam(value = "branch", required = false) List<String> branches,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        RepositoryQuery query = RepositoryQuery.of(names, branches, fields, page, size);
+        RepositoryStream repositories = repositoryCacheService.streamRepositoriesWithBranches(username, query);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(write(repositories, query, true));
+    }
+
+    /**
+     * Streams the repositories of several GitHub users as newline-delimited JSON, one line per user written as
+     * soon as that user is complete. A line holds either the user's repositories or the status and message of
+     * the error that user ran into, so one failing user does not fail the others.
+     *
+     * @param request the usernames; duplicates, also differing in case, are served once
+     * @return a ResponseEntity streaming one result per user
+     */
+    @PostMapping(value = "/repositories:batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> getRepositoriesBatch(@RequestBody BatchRequestDto request) {
+        // An empty or oversized batch is rejected with 400 before streaming starts
+        List<String> usernames = batchRepositoryService.distinct(request.getUsernames());
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.setRootValueSeparator(null);
+                batchRepositoryService.forEach(usernames, result -> {
+                    try {
+                        generator.writeObject(result);
+                        generator.writeRaw('\n');
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    /**
+     * Streams the branch heads of a given GitHub user that move from now on as server-sent events. Each
+     * {@code branches} event holds one repository with its new or moved branches and the names of its deleted
+     * ones; a poll without changes sends a comment line as a heartbeat.
+     *
+     * @param username the GitHub username
+     * @return an emitter open until the client disconnects, the timeout elapses or the user is deleted
+     */
+    @GetMapping(value = "/repositories/{username}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchRepositories(@PathVariable String username) {
+        SseEmitter emitter = new SseEmitter(changeFeedTimeoutMillis);
+        // An unknown user or too many watched users are reported before the stream starts
+        Runnable unsubscribe = branchChangeFeed.subscribe(username, new BranchChangeFeed.Subscriber() {
+            @Override
+            public void send(BranchChangeDto change) throws IOException {
+                emitter.send(SseEmitter.event().name("branches").data(change, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header accepts gzip, i.e. lists it without {@code q=0}.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the selected fields and branches of repositories as a JSON array.
+     */
+    private byte[] write(List<RepositoryDto> repositories, RepositoryQuery query) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            generator.writeStartArray();
+            for (RepositoryDto repository : repositories) {
+                query.write(generator, repository);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toByteArray();
+    }
+
+    /**
+     * Writes each repository to the response and flushes it as soon as it arrives. A failure after the first
+     * bytes were sent aborts the response, leaving the array or the last line incomplete.
+     */
+    private StreamingResponseBody write(RepositoryStream repositories, RepositoryQuery query, boolean ndjson) {
+        return outputStream -> {
+            // Never complete the JSON on close, so an aborted stream cannot pass for a complete one
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+                if (ndjson) {
+                    generator.setRootValueSeparator(null);
+                } else {
+                    generator.writeStartArray();
+                }
+                repositories.forEach(repository -> {
+                    try {
+                        query.write(generator, repository);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
 }
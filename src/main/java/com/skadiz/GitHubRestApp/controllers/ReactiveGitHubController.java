@@ -0,0 +1,47 @@
+package com.skadiz.GitHubRestApp.controllers;
+
+import com.skadiz.GitHubRestApp.services.ReactiveGitHubService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rest Controller serving GitHub repository requests through the non-blocking {@link ReactiveGitHubService}.
+ * It keeps the JSON contract of {@link GitHubController}; errors are mapped by the same
+ * {@link com.skadiz.GitHubRestApp.util.GlobalExceptionHandler}. No servlet thread is held while GitHub responds.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveGitHubController {
+    private final ReactiveGitHubService reactiveGitHubService;
+
+    /**
+     * Constructs a new ReactiveGitHubController with the given ReactiveGitHubService.
+     *
+     * @param reactiveGitHubService the service assembling repositories together with their branches
+     */
+    @Autowired
+    public ReactiveGitHubController(ReactiveGitHubService reactiveGitHubService) {
+        this.reactiveGitHubService = reactiveGitHubService;
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user along with their branches and last commit SHAs.
+     *
+     * @param username the GitHub username
+     * @param acceptHeader the Accept header, should be "application/json"
+     * @return a Mono emitting a ResponseEntity containing the list of repositories with branches or an error message
+     */
+    @GetMapping("/repositories/{username}")
+    public Mono<ResponseEntity<?>> getRepositories(@PathVariable String username,
+                                                   @RequestHeader("Accept") String acceptHeader) {
+        if (!"application/json".equals(acceptHeader)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                    .body("Accept header must be 'application/json'"));
+        }
+        return reactiveGitHubService.getRepositoriesWithBranches(username)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,13 @@
+package com.skadiz.GitHubRestApp.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class BatchRequestDto {
+    private List<String> usernames = new ArrayList<>();
+}
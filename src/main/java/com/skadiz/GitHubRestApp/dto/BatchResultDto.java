@@ -0,0 +1,21 @@
+package com.skadiz.GitHubRestApp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Outcome of one user of a batch request: either the user's repositories, or the status and message
+ * the single-user endpoint would have answered with.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+public class BatchResultDto {
+    private String username;
+    private List<RepositoryDto> repositories;
+    private Integer status;
+    private String message;
+}
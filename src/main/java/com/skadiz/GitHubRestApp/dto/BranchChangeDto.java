@@ -0,0 +1,20 @@
+package com.skadiz.GitHubRestApp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Branch heads of one repository that moved between two polls of its owner: the new or moved branches with
+ * their current commit, and the names of the deleted ones.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@Getter
+@Setter
+public class BranchChangeDto {
+    private String repository;
+    private List<BranchDto> branches;
+    private List<String> deleted;
+}
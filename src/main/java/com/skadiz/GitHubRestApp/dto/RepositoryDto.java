@@ -1,8 +1,10 @@
 package com.skadiz.GitHubRestApp.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,4 +15,9 @@ public class RepositoryDto {
     private OwnerDto owner;
     private List<BranchDto> branches = new ArrayList<>();
     private boolean fork;
+    // Read from GitHub to detect changed repositories, not part of the API response
+    @JsonProperty(value = "pushed_at", access = JsonProperty.Access.WRITE_ONLY)
+    private Instant pushedAt;
+    @JsonProperty(value = "updated_at", access = JsonProperty.Access.WRITE_ONLY)
+    private Instant updatedAt;
 }
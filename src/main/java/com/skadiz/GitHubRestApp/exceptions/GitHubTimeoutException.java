@@ -0,0 +1,16 @@
+package com.skadiz.GitHubRestApp.exceptions;
+
+/**
+ * Custom exception to handle cases where GitHub API calls do not complete within the allowed time.
+ */
+public class GitHubTimeoutException extends RuntimeException {
+
+    /**
+     * Constructs a new GitHubTimeoutException with the specified detail message.
+     *
+     * @param message the detail message describing the error
+     */
+    public GitHubTimeoutException(String message) {
+        super(message);
+    }
+}
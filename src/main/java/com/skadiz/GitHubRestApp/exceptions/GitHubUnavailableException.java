@@ -0,0 +1,29 @@
+package com.skadiz.GitHubRestApp.exceptions;
+
+/**
+ * Custom exception to handle GitHub API calls refused before they were sent, because the circuit breaker of
+ * their endpoint is open or too many calls are already in flight, with no cached copy to answer from.
+ */
+public class GitHubUnavailableException extends GitHubApiException {
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new GitHubUnavailableException with the specified detail message and retry delay.
+     *
+     * @param message the detail message describing the error
+     * @param retryAfterSeconds the number of seconds after which the request may succeed
+     */
+    public GitHubUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Returns the number of seconds after which the request may succeed.
+     *
+     * @return the retry delay in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
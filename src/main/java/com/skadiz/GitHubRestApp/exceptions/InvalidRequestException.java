@@ -0,0 +1,16 @@
+package com.skadiz.GitHubRestApp.exceptions;
+
+/**
+ * Custom exception to handle requests whose content cannot be served as sent.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidRequestException with the specified detail message.
+     *
+     * @param message the detail message describing the error
+     */
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,7 @@ package com.skadiz.GitHubRestApp.exceptions;
  * Custom exception to handle cases where the GitHub API rate limit is exceeded.
  */
 public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
 
     /**
      * Constructs a new RateLimitExceededException with the specified detail message.
@@ -11,7 +12,27 @@ public class RateLimitExceededException extends RuntimeException {
      * @param message the detail message describing the error
      */
     public RateLimitExceededException(String message) {
+        this(message, -1);
+    }
+
+    /**
+     * Constructs a new RateLimitExceededException with the specified detail message and retry delay.
+     *
+     * @param message the detail message describing the error
+     * @param retryAfterSeconds the number of seconds after which the request may succeed, or -1 if unknown
+     */
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
         super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Returns the number of seconds after which the request may succeed.
+     *
+     * @return the retry delay in seconds, or -1 if unknown
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
     }
 }
 
@@ -0,0 +1,16 @@
+package com.skadiz.GitHubRestApp.exceptions;
+
+/**
+ * Custom exception to handle change feed subscriptions refused because too many users are already watched.
+ */
+public class SubscriptionLimitException extends RuntimeException {
+
+    /**
+     * Constructs a new SubscriptionLimitException with the specified detail message.
+     *
+     * @param message the detail message describing the error
+     */
+    public SubscriptionLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,88 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link ClientHttpResponse} backed by a fully read body, so the same response can be served more than once.
+ */
+public class BufferedClientHttpResponse implements ClientHttpResponse {
+    private final HttpStatusCode statusCode;
+    private final String statusText;
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    /**
+     * Constructs a new BufferedClientHttpResponse.
+     *
+     * @param statusCode the HTTP status code
+     * @param statusText the HTTP status text
+     * @param headers the response headers
+     * @param body the response body
+     */
+    public BufferedClientHttpResponse(HttpStatusCode statusCode, String statusText, HttpHeaders headers, byte[] body) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Reads the given response fully and closes it.
+     *
+     * @param response the response to buffer
+     * @return a buffered copy of the response with read-only headers
+     * @throws IOException if the response body cannot be read
+     */
+    public static BufferedClientHttpResponse of(ClientHttpResponse response) throws IOException {
+        if (response instanceof BufferedClientHttpResponse buffered) {
+            return buffered;
+        }
+        try (response) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            byte[] body = StreamUtils.copyToByteArray(response.getBody());
+            return new BufferedClientHttpResponse(response.getStatusCode(), response.getStatusText(),
+                    HttpHeaders.readOnlyHttpHeaders(headers), body);
+        }
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public String getStatusText() {
+        return statusText;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+        return new ByteArrayInputStream(body);
+    }
+
+    /**
+     * Returns the buffered body.
+     *
+     * @return the response body bytes
+     */
+    public byte[] getBodyAsByteArray() {
+        return body;
+    }
+
+    @Override
+    public void close() {
+    }
+}
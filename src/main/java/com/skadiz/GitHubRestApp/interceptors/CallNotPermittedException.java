@@ -0,0 +1,32 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import java.io.IOException;
+
+/**
+ * Signals a GitHub API call refused before it was sent, because the circuit breaker of its endpoint is open
+ * or too many calls are already in flight. It is an {@link IOException} so that interceptors closer to the
+ * caller treat it like any other call that got no response.
+ */
+public class CallNotPermittedException extends IOException {
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new CallNotPermittedException with the specified detail message and retry delay.
+     *
+     * @param message the detail message describing why the call was refused
+     * @param retryAfterSeconds the number of seconds after which the call is likely to be permitted
+     */
+    public CallNotPermittedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Returns the number of seconds after which the call is likely to be permitted.
+     *
+     * @return the retry delay in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
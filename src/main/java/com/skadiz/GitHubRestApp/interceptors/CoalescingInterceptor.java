@@ -0,0 +1,169 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Interceptor that coalesces concurrent identical GitHub API calls (single-flight).
+ * Only one GET per URL is sent upstream at a time; callers arriving while it is in flight wait for it
+ * and receive the same buffered response, or the same error. If the call is cancelled by the caller that sent it,
+ * the waiting callers elect a new leader instead. Calls made within {@link #uncoalesced(Supplier)},
+ * such as hedges that must not wait for the slow call they back up, are always sent.
+ */
+@Component
+public class CoalescingInterceptor implements ClientHttpRequestInterceptor, MeterBinder {
+    private static final ThreadLocal<Boolean> BYPASS = ThreadLocal.withInitial(() -> false);
+
+    private final boolean enabled;
+    private final Map<String, CompletableFuture<BufferedClientHttpResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    /**
+     * Constructs a new CoalescingInterceptor.
+     *
+     * @param enabled whether concurrent identical calls are coalesced
+     */
+    public CoalescingInterceptor(@Value("${github.coalescing.enabled}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!enabled || request.getMethod() != HttpMethod.GET || BYPASS.get()) {
+            return execution.execute(request, body);
+        }
+        String key = request.getURI().toString();
+        while (true) {
+            CompletableFuture<BufferedClientHttpResponse> call = new CompletableFuture<>();
+            CompletableFuture<BufferedClientHttpResponse> existing = inFlight.putIfAbsent(key, call);
+            if (existing != null) {
+                deduplicated.incrementAndGet();
+                try {
+                    return await(existing);
+                } catch (LeaderCancelledException e) {
+                    // The leader was cancelled by its own caller; send the call again, or join the next leader
+                    continue;
+                }
+            }
+
+            leaders.incrementAndGet();
+            try {
+                BufferedClientHttpResponse response = BufferedClientHttpResponse.of(execution.execute(request, body));
+                inFlight.remove(key, call);
+                call.complete(response);
+                return response;
+            } catch (IOException | RuntimeException e) {
+                inFlight.remove(key, call);
+                call.completeExceptionally(isCancellation(e) ? new LeaderCancelledException() : e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Tells whether a call failed because its own thread was interrupted, e.g. a losing hedge or a sibling
+     * lookup cancelled by its request, rather than because of GitHub. Such a failure is not shared with the
+     * callers waiting on the call, which belong to other requests.
+     */
+    private static boolean isCancellation(Exception e) {
+        return Thread.currentThread().isInterrupted() || e instanceof InterruptedIOException
+                || e instanceof ClosedByInterruptException;
+    }
+
+    /**
+     * Runs the given action on the current thread without coalescing its calls with identical ones in flight.
+     *
+     * @param action the action to run
+     * @param <T> the result type
+     * @return the result of the action
+     */
+    public static <T> T uncoalesced(Supplier<T> action) {
+        boolean previous = BYPASS.get();
+        BYPASS.set(true);
+        try {
+            return action.get();
+        } finally {
+            BYPASS.set(previous);
+        }
+    }
+
+    /**
+     * Returns the number of calls that were sent upstream.
+     *
+     * @return the leader count
+     */
+    public long getLeaderCount() {
+        return leaders.get();
+    }
+
+    /**
+     * Returns the number of calls answered by another identical call already in flight.
+     *
+     * @return the deduplicated count
+     */
+    public long getDeduplicatedCount() {
+        return deduplicated.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("github.http.coalescing.requests", leaders, AtomicLong::get)
+                .tag("result", "leader")
+                .description("GitHub requests by single-flight result")
+                .register(registry);
+        FunctionCounter.builder("github.http.coalescing.requests", deduplicated, AtomicLong::get)
+                .tag("result", "deduplicated")
+                .description("GitHub requests by single-flight result")
+                .register(registry);
+        Gauge.builder("github.http.coalescing.in_flight", inFlight, Map::size)
+                .register(registry);
+    }
+
+    private static ClientHttpResponse await(CompletableFuture<BufferedClientHttpResponse> call) throws IOException {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a coalesced GitHub API call");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Handed to the callers waiting on a call whose leader was cancelled, telling them to send it again.
+     */
+    private static final class LeaderCancelledException extends IOException {
+        private LeaderCancelledException() {
+            super("Coalesced GitHub API call cancelled by its leader", null);
+        }
+    }
+}
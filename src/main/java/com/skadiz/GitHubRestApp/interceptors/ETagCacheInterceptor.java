@@ -0,0 +1,246 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import com.skadiz.GitHubRestApp.cache.CachedResponse;
+import com.skadiz.GitHubRestApp.cache.DiskResponseCache;
+import com.skadiz.GitHubRestApp.cache.LruResponseCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor that turns repeated GitHub API calls into conditional requests.
+ * The body and validators of every successful GET response are cached per URL; later requests for the
+ * same URL send {@code If-None-Match} / {@code If-Modified-Since}, and a {@code 304 Not Modified} answer
+ * is served from the cache. GitHub does not count 304 responses against the rate limit.
+ * When a call with a cached copy fails without a response, including calls refused by the
+ * {@link ResilienceInterceptor}, or GitHub answers with a 5xx error, the cached copy is served instead
+ * (stale-if-error), marked with a {@code Warning: 110} header.
+ * When a {@link DiskResponseCache} is configured, responses are also written to disk, and a response missing
+ * from memory is looked up there, so conditional requests keep working after a restart.
+ */
+@Component
+public class ETagCacheInterceptor implements ClientHttpRequestInterceptor, MeterBinder {
+    /**
+     * The {@code Warning} header value marking a cached copy served because the call failed.
+     */
+    public static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final boolean enabled;
+    private final LruResponseCache cache;
+    private final DiskResponseCache diskCache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong staleIfError = new AtomicLong();
+
+    /**
+     * Constructs a new ETagCacheInterceptor.
+     *
+     * @param enabled whether conditional requests are enabled
+     * @param maxBytes the maximum number of bytes held by the response cache
+     * @param diskCache the persistent second-level cache, if one is configured
+     */
+    @Autowired
+    public ETagCacheInterceptor(@Value("${github.http-cache.enabled}") boolean enabled,
+                                @Value("${github.http-cache.max-bytes}") long maxBytes,
+                                ObjectProvider<DiskResponseCache> diskCache) {
+        this(enabled, maxBytes, diskCache.getIfAvailable());
+    }
+
+    /**
+     * Constructs a new ETagCacheInterceptor keeping responses in memory only.
+     *
+     * @param enabled whether conditional requests are enabled
+     * @param maxBytes the maximum number of bytes held by the response cache
+     */
+    public ETagCacheInterceptor(boolean enabled, long maxBytes) {
+        this(enabled, maxBytes, (DiskResponseCache) null);
+    }
+
+    /**
+     * Constructs a new ETagCacheInterceptor.
+     *
+     * @param enabled whether conditional requests are enabled
+     * @param maxBytes the maximum number of bytes held by the response cache
+     * @param diskCache the persistent second-level cache, or null if responses are kept in memory only
+     */
+    public ETagCacheInterceptor(boolean enabled, long maxBytes, DiskResponseCache diskCache) {
+        this.enabled = enabled;
+        this.cache = new LruResponseCache(maxBytes);
+        this.diskCache = diskCache;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!enabled || request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+        String key = request.getURI().toString();
+        CachedResponse cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            if (cached.etag() != null) {
+                request.getHeaders().set(HttpHeaders.IF_NONE_MATCH, cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+            }
+        } else {
+            misses.incrementAndGet();
+        }
+
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException e) {
+            if (cached == null) {
+                throw e;
+            }
+            return stale(cached);
+        }
+        if (cached != null && response.getStatusCode().is5xxServerError()) {
+            response.close();
+            return stale(cached);
+        }
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            notModified.incrementAndGet();
+            response.close();
+            return new BufferedClientHttpResponse(HttpStatus.OK, HttpStatus.OK.getReasonPhrase(),
+                    cached.headers(), cached.body());
+        }
+        HttpHeaders headers = response.getHeaders();
+        if (!response.getStatusCode().isSameCodeAs(HttpStatus.OK)
+                || (headers.getETag() == null && headers.getFirst(HttpHeaders.LAST_MODIFIED) == null)) {
+            return response;
+        }
+        byte[] bytes;
+        try (response) {
+            bytes = StreamUtils.copyToByteArray(response.getBody());
+        }
+        CachedResponse fresh = new CachedResponse(headers, bytes);
+        cache.put(key, fresh);
+        if (diskCache != null) {
+            diskCache.putAsync(key, fresh);
+        }
+        return new BufferedClientHttpResponse(response.getStatusCode(), response.getStatusText(),
+                fresh.headers(), bytes);
+    }
+
+    private ClientHttpResponse stale(CachedResponse cached) {
+        staleIfError.incrementAndGet();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.WARNING, STALE_WARNING);
+        return new BufferedClientHttpResponse(HttpStatus.OK, HttpStatus.OK.getReasonPhrase(), headers,
+                cached.body());
+    }
+
+    private CachedResponse lookup(String key) {
+        CachedResponse cached = cache.get(key);
+        if (cached == null && diskCache != null) {
+            cached = diskCache.get(key);
+            if (cached != null) {
+                cache.put(key, cached);
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Returns the number of requests sent with a cached validator.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of requests sent without a cached validator.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of 304 responses served from the cache.
+     *
+     * @return the not-modified count
+     */
+    public long getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    /**
+     * Returns the number of failed calls answered with a cached copy.
+     *
+     * @return the stale-if-error count
+     */
+    public long getStaleIfErrorCount() {
+        return staleIfError.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("github.http.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("GitHub requests by conditional cache result")
+                .register(registry);
+        FunctionCounter.builder("github.http.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("GitHub requests by conditional cache result")
+                .register(registry);
+        FunctionCounter.builder("github.http.cache.requests", notModified, AtomicLong::get)
+                .tag("result", "not_modified")
+                .description("GitHub requests by conditional cache result")
+                .register(registry);
+        FunctionCounter.builder("github.http.cache.stale_if_error", staleIfError, AtomicLong::get)
+                .description("Failed GitHub requests answered with a cached copy")
+                .register(registry);
+        FunctionCounter.builder("github.http.cache.evictions", cache, LruResponseCache::evictionCount)
+                .register(registry);
+        Gauge.builder("github.http.cache.size", cache, LruResponseCache::sizeInBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("github.http.cache.entries", cache, LruResponseCache::size)
+                .register(registry);
+        if (diskCache == null) {
+            return;
+        }
+        FunctionCounter.builder("github.http.disk_cache.requests", diskCache, DiskResponseCache::getHitCount)
+                .tag("result", "hit")
+                .description("Disk cache lookups after a memory miss, by result")
+                .register(registry);
+        FunctionCounter.builder("github.http.disk_cache.requests", diskCache, DiskResponseCache::getMissCount)
+                .tag("result", "miss")
+                .description("Disk cache lookups after a memory miss, by result")
+                .register(registry);
+        FunctionCounter.builder("github.http.disk_cache.compactions", diskCache,
+                        DiskResponseCache::getCompactionCount)
+                .register(registry);
+        Gauge.builder("github.http.disk_cache.size", diskCache, DiskResponseCache::fileSizeInBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("github.http.disk_cache.entries", diskCache, DiskResponseCache::size)
+                .register(registry);
+    }
+}
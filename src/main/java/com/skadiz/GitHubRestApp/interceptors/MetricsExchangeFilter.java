@@ -0,0 +1,54 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reactive counterpart of {@link MetricsInterceptor} for the GitHub {@code WebClient}.
+ * A call is timed from subscription until its response headers arrive; a cancelled call is not recorded.
+ */
+@Component
+public class MetricsExchangeFilter implements ExchangeFilterFunction {
+    private final UpstreamMetrics upstreamMetrics;
+
+    /**
+     * Constructs a new MetricsExchangeFilter.
+     *
+     * @param upstreamMetrics the meters recording GitHub API calls
+     */
+    public MetricsExchangeFilter(UpstreamMetrics upstreamMetrics) {
+        this.upstreamMetrics = upstreamMetrics;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = upstreamMetrics.start();
+            AtomicBoolean done = new AtomicBoolean();
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        if (done.compareAndSet(false, true)) {
+                            upstreamMetrics.stop(sample, request.method(), request.url(), response.statusCode(),
+                                    response.headers().asHttpHeaders());
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (done.compareAndSet(false, true)) {
+                            upstreamMetrics.stop(sample, request.method(), request.url());
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            upstreamMetrics.cancel();
+                        }
+                    });
+        });
+    }
+}
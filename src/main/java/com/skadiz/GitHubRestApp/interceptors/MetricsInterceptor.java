@@ -0,0 +1,44 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Interceptor that times every GitHub API call through {@link UpstreamMetrics}. It is the innermost interceptor,
+ * so coalesced calls, cached responses and rate limit pacing are not counted as upstream latency.
+ */
+@Component
+public class MetricsInterceptor implements ClientHttpRequestInterceptor {
+    private final UpstreamMetrics upstreamMetrics;
+
+    /**
+     * Constructs a new MetricsInterceptor.
+     *
+     * @param upstreamMetrics the meters recording GitHub API calls
+     */
+    public MetricsInterceptor(UpstreamMetrics upstreamMetrics) {
+        this.upstreamMetrics = upstreamMetrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timer.Sample sample = upstreamMetrics.start();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            upstreamMetrics.stop(sample, request.getMethod(), request.getURI());
+            throw e;
+        }
+        upstreamMetrics.stop(sample, request.getMethod(), request.getURI(), response.getStatusCode(),
+                response.getHeaders());
+        return response;
+    }
+}
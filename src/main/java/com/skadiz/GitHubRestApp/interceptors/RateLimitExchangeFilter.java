@@ -0,0 +1,49 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import com.skadiz.GitHubRestApp.services.RateLimitScheduler;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Reactive counterpart of {@link RateLimitInterceptor} for the GitHub {@code WebClient}.
+ * Calls are admitted by the {@link RateLimitScheduler} and authenticated with the pooled token it picked;
+ * a paced call is delayed on a timer instead of blocking a thread.
+ */
+@Component
+public class RateLimitExchangeFilter implements ExchangeFilterFunction {
+    private final RateLimitScheduler rateLimitScheduler;
+
+    /**
+     * Constructs a new RateLimitExchangeFilter.
+     *
+     * @param rateLimitScheduler the scheduler pacing GitHub API calls
+     */
+    public RateLimitExchangeFilter(RateLimitScheduler rateLimitScheduler) {
+        this.rateLimitScheduler = rateLimitScheduler;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        // Reactive calls always serve a client request
+        return Mono.fromCallable(() -> rateLimitScheduler.reserve(RequestPriority.HIGH))
+                .flatMap(permit -> {
+                    ClientRequest authenticated = permit.token().isEmpty() ? request : ClientRequest.from(request)
+                            .headers(headers -> headers.set(HttpHeaders.AUTHORIZATION, "token " + permit.token()))
+                            .build();
+                    Mono<ClientResponse> response = next.exchange(authenticated)
+                            .doOnNext(received -> rateLimitScheduler.record(permit.token(), received.statusCode(),
+                                    received.headers().asHttpHeaders()));
+                    return permit.waitMillis() > 0
+                            ? Mono.delay(Duration.ofMillis(permit.waitMillis())).then(response)
+                            : response;
+                });
+    }
+}
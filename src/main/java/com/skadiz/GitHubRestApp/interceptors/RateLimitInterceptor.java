@@ -0,0 +1,50 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import com.skadiz.GitHubRestApp.services.RateLimitScheduler;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Interceptor that lets the {@link RateLimitScheduler} admit every GitHub API call before it is sent,
+ * authenticates the call with the pooled token the scheduler picked, and feeds the rate limit headers of every
+ * response back to it. A call refused by the {@link ResilienceInterceptor} after its admission never reached
+ * GitHub, so its slot is refunded.
+ */
+@Component
+public class RateLimitInterceptor implements ClientHttpRequestInterceptor {
+    private final RateLimitScheduler rateLimitScheduler;
+
+    /**
+     * Constructs a new RateLimitInterceptor.
+     *
+     * @param rateLimitScheduler the scheduler pacing GitHub API calls
+     */
+    public RateLimitInterceptor(RateLimitScheduler rateLimitScheduler) {
+        this.rateLimitScheduler = rateLimitScheduler;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String token = rateLimitScheduler.acquire(RequestPriority.current());
+        if (!token.isEmpty()) {
+            request.getHeaders().set(HttpHeaders.AUTHORIZATION, "token " + token);
+        }
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (CallNotPermittedException e) {
+            rateLimitScheduler.refund(token);
+            throw e;
+        }
+        rateLimitScheduler.record(token, response.getStatusCode(), response.getHeaders());
+        return response;
+    }
+}
@@ -0,0 +1,207 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import com.skadiz.GitHubRestApp.util.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor that keeps a degraded GitHub from tying up the application's threads.
+ * <ul>
+ *     <li>A bulkhead caps the number of calls in flight; a call that cannot get a slot within the wait is
+ *     refused.</li>
+ *     <li>A {@link CircuitBreaker} per endpoint template opens once too many recent calls to that endpoint failed
+ *     with an I/O error or a 5xx response, and refuses its calls until a probe succeeds again. Calls cancelled
+ *     by their caller do not count either way.</li>
+ * </ul>
+ * It sits after the {@link RateLimitInterceptor}, so a call only takes a bulkhead slot once it is admitted by the
+ * rate limiter and no slot is held by a call sleeping until its turn.
+ * Refused calls fail at once with a {@link CallNotPermittedException}, which lets the {@link ETagCacheInterceptor}
+ * answer from its cache when it holds a copy.
+ */
+@Component
+public class ResilienceInterceptor implements ClientHttpRequestInterceptor, MeterBinder {
+    private final boolean enabled;
+    private final Semaphore bulkhead;
+    private final long maxWaitMillis;
+    private final int failureRateThreshold;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openMillis;
+    private final Clock clock;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final AtomicLong circuitOpenRejections = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+
+    /**
+     * Constructs a new ResilienceInterceptor.
+     *
+     * @param enabled whether calls go through the bulkhead and circuit breakers
+     * @param maxConcurrentCalls the maximum number of GitHub API calls in flight
+     * @param maxWaitMillis how long in milliseconds a call waits for a slot in the bulkhead
+     * @param failureRateThreshold the percentage of failed calls that opens the breaker of an endpoint
+     * @param windowSize the number of most recent calls per endpoint whose outcome is kept
+     * @param minimumCalls the number of calls needed in the window before a breaker may open
+     * @param openMillis how long in milliseconds an open breaker refuses calls before letting a probe through
+     */
+    @Autowired
+    public ResilienceInterceptor(@Value("${github.resilience.enabled}") boolean enabled,
+                                 @Value("${github.resilience.max-concurrent-calls}") int maxConcurrentCalls,
+                                 @Value("${github.resilience.max-wait-ms}") long maxWaitMillis,
+                                 @Value("${github.resilience.failure-rate-threshold}") int failureRateThreshold,
+                                 @Value("${github.resilience.window-size}") int windowSize,
+                                 @Value("${github.resilience.minimum-calls}") int minimumCalls,
+                                 @Value("${github.resilience.open-ms}") long openMillis) {
+        this(enabled, maxConcurrentCalls, maxWaitMillis, failureRateThreshold, windowSize, minimumCalls, openMillis,
+                Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new ResilienceInterceptor.
+     *
+     * @param enabled whether calls go through the bulkhead and circuit breakers
+     * @param maxConcurrentCalls the maximum number of GitHub API calls in flight
+     * @param maxWaitMillis how long in milliseconds a call waits for a slot in the bulkhead
+     * @param failureRateThreshold the percentage of failed calls that opens the breaker of an endpoint
+     * @param windowSize the number of most recent calls per endpoint whose outcome is kept
+     * @param minimumCalls the number of calls needed in the window before a breaker may open
+     * @param openMillis how long in milliseconds an open breaker refuses calls before letting a probe through
+     * @param clock the clock timing open breakers
+     */
+    public ResilienceInterceptor(boolean enabled, int maxConcurrentCalls, long maxWaitMillis, int failureRateThreshold,
+                                 int windowSize, int minimumCalls, long openMillis, Clock clock) {
+        this.enabled = enabled;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxWaitMillis = maxWaitMillis;
+        this.failureRateThreshold = failureRateThreshold;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!enabled) {
+            return execution.execute(request, body);
+        }
+        String endpoint = UpstreamMetrics.endpoint(request.getURI());
+        CircuitBreaker breaker = breakers.computeIfAbsent(endpoint, key -> new CircuitBreaker(
+                failureRateThreshold, windowSize, minimumCalls, openMillis, clock));
+        acquireSlot(endpoint);
+        try {
+            if (!breaker.tryAcquire()) {
+                circuitOpenRejections.incrementAndGet();
+                throw new CallNotPermittedException("Circuit breaker open for GitHub endpoint " + endpoint,
+                        Math.max(1, TimeUnit.MILLISECONDS.toSeconds(breaker.getRemainingOpenMillis() + 999)));
+            }
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException e) {
+                // A lookup cancelled because a sibling failed says nothing about GitHub
+                if (Thread.currentThread().isInterrupted() || e instanceof InterruptedIOException) {
+                    breaker.onIgnored();
+                } else {
+                    breaker.onFailure();
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                breaker.onIgnored();
+                throw e;
+            }
+            if (response.getStatusCode().is5xxServerError()) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            return response;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private void acquireSlot(String endpoint) throws IOException {
+        try {
+            if (!bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                bulkheadRejections.incrementAndGet();
+                // Slots free up as soon as calls in flight are answered
+                throw new CallNotPermittedException("Too many GitHub API calls in flight for endpoint " + endpoint, 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a GitHub API call slot");
+        }
+    }
+
+    /**
+     * Returns the state of the circuit breaker of an endpoint template.
+     *
+     * @param endpoint the endpoint template, as tagged on the upstream meters
+     * @return the state, {@link CircuitBreaker.State#CLOSED} for an endpoint not called yet
+     */
+    public CircuitBreaker.State getState(String endpoint) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.getState();
+    }
+
+    /**
+     * Returns the number of calls refused because the circuit breaker of their endpoint was open.
+     *
+     * @return the circuit open rejection count
+     */
+    public long getCircuitOpenRejectionCount() {
+        return circuitOpenRejections.get();
+    }
+
+    /**
+     * Returns the number of calls refused because the bulkhead stayed full.
+     *
+     * @return the bulkhead rejection count
+     */
+    public long getBulkheadRejectionCount() {
+        return bulkheadRejections.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder("github.resilience.rejections", circuitOpenRejections, AtomicLong::get)
+                .tag("reason", "circuit_open")
+                .description("GitHub API calls refused before being sent, by reason")
+                .register(registry);
+        FunctionCounter.builder("github.resilience.rejections", bulkheadRejections, AtomicLong::get)
+                .tag("reason", "bulkhead_full")
+                .description("GitHub API calls refused before being sent, by reason")
+                .register(registry);
+        Gauge.builder("github.resilience.open_circuits", breakers, ResilienceInterceptor::openCircuits)
+                .description("Endpoints whose circuit breaker is open or half-open")
+                .register(registry);
+    }
+
+    private static long openCircuits(Map<String, CircuitBreaker> breakers) {
+        return breakers.values().stream()
+                .filter(breaker -> breaker.getState() != CircuitBreaker.State.CLOSED)
+                .count();
+    }
+}
@@ -0,0 +1,294 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import com.skadiz.GitHubRestApp.cache.CachedResponse;
+import com.skadiz.GitHubRestApp.cache.SharedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor that shares successful GitHub GET responses between all replicas through a {@link SharedCache}.
+ * <ul>
+ *     <li>A response younger than the TTL is served from the shared cache without calling GitHub.</li>
+ *     <li>Otherwise the replica takes the key's lock and calls GitHub, storing the response for the others.</li>
+ *     <li>A replica that finds the lock taken waits for the refreshed response, then falls back to the stale
+ *     one, and only calls GitHub itself if it has neither.</li>
+ * </ul>
+ * Without a shared cache, or while it is unreachable, calls go straight through.
+ */
+@Component
+public class SharedCacheInterceptor implements ClientHttpRequestInterceptor, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(SharedCacheInterceptor.class);
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final SharedCache sharedCache;
+    private final long ttlMillis;
+    private final Duration timeToLive;
+    private final Duration lockLease;
+    private final long lockWaitMillis;
+    private final Clock clock;
+    private final String owner = UUID.randomUUID().toString();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong peerRefreshes = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private record Entry(long storedAt, CachedResponse response) {
+    }
+
+    /**
+     * Constructs a new SharedCacheInterceptor.
+     *
+     * @param sharedCache the cache shared by all replicas, if one is configured
+     * @param ttlMillis how long in milliseconds a shared response is served without a refresh
+     * @param staleMillis how long in milliseconds after the TTL a shared response is kept as a fallback
+     * @param lockLeaseMillis how long in milliseconds a replica may hold the lock of a key
+     * @param lockWaitMillis how long in milliseconds a replica waits for another one to refresh a key
+     */
+    @Autowired
+    public SharedCacheInterceptor(ObjectProvider<SharedCache> sharedCache,
+                                  @Value("${github.shared-cache.ttl-ms}") long ttlMillis,
+                                  @Value("${github.shared-cache.stale-ms}") long staleMillis,
+                                  @Value("${github.shared-cache.lock-lease-ms}") long lockLeaseMillis,
+                                  @Value("${github.shared-cache.lock-wait-ms}") long lockWaitMillis) {
+        this(sharedCache.getIfAvailable(), ttlMillis, staleMillis, lockLeaseMillis, lockWaitMillis,
+                Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new SharedCacheInterceptor.
+     *
+     * @param sharedCache the cache shared by all replicas, or null if responses are not shared
+     * @param ttlMillis how long in milliseconds a shared response is served without a refresh
+     * @param staleMillis how long in milliseconds after the TTL a shared response is kept as a fallback
+     * @param lockLeaseMillis how long in milliseconds a replica may hold the lock of a key
+     * @param lockWaitMillis how long in milliseconds a replica waits for another one to refresh a key
+     * @param clock the clock used to age shared responses; replicas are assumed to have synchronized clocks
+     */
+    public SharedCacheInterceptor(SharedCache sharedCache, long ttlMillis, long staleMillis,
+                                  long lockLeaseMillis, long lockWaitMillis, Clock clock) {
+        this.sharedCache = sharedCache;
+        this.ttlMillis = ttlMillis;
+        this.timeToLive = Duration.ofMillis(ttlMillis + staleMillis);
+        this.lockLease = Duration.ofMillis(lockLeaseMillis);
+        this.lockWaitMillis = lockWaitMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (sharedCache == null || request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+        String key = request.getURI().toString();
+        Entry cached = read(key);
+        if (cached != null && isFresh(cached)) {
+            hits.incrementAndGet();
+            return toResponse(cached);
+        }
+        if (!tryLock(key)) {
+            Entry refreshed = awaitRefresh(key);
+            if (refreshed != null) {
+                peerRefreshes.incrementAndGet();
+                return toResponse(refreshed);
+            }
+            if (cached != null) {
+                staleHits.incrementAndGet();
+                return toResponse(cached);
+            }
+            misses.incrementAndGet();
+            return fetch(key, request, body, execution);
+        }
+        try {
+            misses.incrementAndGet();
+            return fetch(key, request, body, execution);
+        } finally {
+            unlock(key);
+        }
+    }
+
+    private ClientHttpResponse fetch(String key, HttpRequest request, byte[] body,
+                                     ClientHttpRequestExecution execution) throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        // A stale copy served because GitHub failed must not pass for a fresh one on the other replicas
+        if (!response.getStatusCode().isSameCodeAs(HttpStatus.OK)
+                || response.getHeaders().containsKey(HttpHeaders.WARNING)) {
+            return response;
+        }
+        BufferedClientHttpResponse buffered = BufferedClientHttpResponse.of(response);
+        write(key, new Entry(clock.millis(), new CachedResponse(buffered.getHeaders(),
+                buffered.getBodyAsByteArray())));
+        return buffered;
+    }
+
+    /**
+     * Polls the shared cache until another replica has stored a fresh response or the wait is over.
+     *
+     * @return the fresh response, or null if none arrived in time
+     */
+    private Entry awaitRefresh(String key) {
+        long deadline = clock.millis() + lockWaitMillis;
+        while (clock.millis() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Entry entry = read(key);
+            if (entry != null && isFresh(entry)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private boolean isFresh(Entry entry) {
+        return clock.millis() - entry.storedAt() < ttlMillis;
+    }
+
+    private Entry read(String key) {
+        try {
+            byte[] value = sharedCache.get(key);
+            if (value == null) {
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+                return new Entry(in.readLong(), CachedResponse.readFrom(in));
+            }
+        } catch (IOException | RuntimeException e) {
+            failed("read", key, e);
+            return null;
+        }
+    }
+
+    private void write(String key, Entry entry) {
+        try {
+            ByteArrayOutputStream value = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(value)) {
+                out.writeLong(entry.storedAt());
+                entry.response().writeTo(out);
+            }
+            sharedCache.put(key, value.toByteArray(), timeToLive);
+        } catch (IOException | RuntimeException e) {
+            failed("write", key, e);
+        }
+    }
+
+    /**
+     * Takes the lock of a key. An unreachable shared cache counts as taken, so the call goes ahead.
+     */
+    private boolean tryLock(String key) {
+        try {
+            return sharedCache.tryLock(key, owner, lockLease);
+        } catch (RuntimeException e) {
+            failed("lock", key, e);
+            return true;
+        }
+    }
+
+    private void unlock(String key) {
+        try {
+            sharedCache.unlock(key, owner);
+        } catch (RuntimeException e) {
+            failed("unlock", key, e);
+        }
+    }
+
+    private void failed(String operation, String key, Exception e) {
+        errors.incrementAndGet();
+        log.debug("Shared cache {} failed for {}: {}", operation, key, e.getMessage());
+    }
+
+    private static ClientHttpResponse toResponse(Entry entry) {
+        return new BufferedClientHttpResponse(HttpStatus.OK, HttpStatus.OK.getReasonPhrase(),
+                entry.response().headers(), entry.response().body());
+    }
+
+    /**
+     * Returns the number of calls answered by a fresh shared response.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of calls answered by a response another replica refreshed while this one waited.
+     *
+     * @return the peer refresh count
+     */
+    public long getPeerRefreshCount() {
+        return peerRefreshes.get();
+    }
+
+    /**
+     * Returns the number of calls answered by an expired shared response because another replica held the lock.
+     *
+     * @return the stale hit count
+     */
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    /**
+     * Returns the number of calls sent on to GitHub.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (sharedCache == null) {
+            return;
+        }
+        FunctionCounter.builder("github.shared_cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("GitHub requests by shared cache result")
+                .register(registry);
+        FunctionCounter.builder("github.shared_cache.requests", peerRefreshes, AtomicLong::get)
+                .tag("result", "peer_refresh")
+                .description("GitHub requests by shared cache result")
+                .register(registry);
+        FunctionCounter.builder("github.shared_cache.requests", staleHits, AtomicLong::get)
+                .tag("result", "stale")
+                .description("GitHub requests by shared cache result")
+                .register(registry);
+        FunctionCounter.builder("github.shared_cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("GitHub requests by shared cache result")
+                .register(registry);
+        FunctionCounter.builder("github.shared_cache.errors", errors, AtomicLong::get)
+                .description("Shared cache operations that failed")
+                .register(registry);
+    }
+}
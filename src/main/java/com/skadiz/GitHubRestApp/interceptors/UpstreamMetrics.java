@@ -0,0 +1,130 @@
+package com.skadiz.GitHubRestApp.interceptors;
+
+import com.skadiz.GitHubRestApp.services.GitHubService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Records every call that actually reaches the GitHub API, for both the {@code RestTemplate} and the
+ * {@code WebClient} pipelines. Calls are timed and counted by endpoint template rather than raw URL, so a
+ * username never becomes a tag value and the number of series stays bounded.
+ */
+@Component
+public class UpstreamMetrics {
+    private static final Pattern REPOSITORIES = Pattern.compile(".*/users/[^/]+/repos");
+    private static final Pattern BRANCHES = Pattern.compile(".*/repos/[^/]+/[^/]+/branches");
+    private static final Pattern GRAPHQL = Pattern.compile(".*/graphql");
+
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Constructs a new UpstreamMetrics.
+     *
+     * @param registry the registry the upstream meters are registered with
+     */
+    public UpstreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("github.upstream.in_flight", inFlight, AtomicInteger::get)
+                .description("GitHub API calls waiting for a response")
+                .register(registry);
+    }
+
+    /**
+     * Marks the start of a call that is about to be sent to GitHub.
+     *
+     * @return the sample to pass to {@link #stop} once the call completes
+     */
+    public Timer.Sample start() {
+        inFlight.incrementAndGet();
+        return Timer.start(registry);
+    }
+
+    /**
+     * Records a call that received a response.
+     *
+     * @param sample the sample returned by {@link #start()}
+     * @param method the HTTP method of the call
+     * @param uri the URI of the call
+     * @param status the response status
+     * @param headers the response headers, used to tell rate limit refusals from other errors
+     */
+    public void stop(Timer.Sample sample, HttpMethod method, URI uri, HttpStatusCode status, HttpHeaders headers) {
+        String endpoint = endpoint(uri);
+        record(sample, method, endpoint, String.valueOf(status.value()));
+        if (status.isError()) {
+            countError(endpoint, GitHubService.isRateLimited(status, headers) ? "rate_limited"
+                    : status.is5xxServerError() ? "server_error" : "client_error");
+        }
+    }
+
+    /**
+     * Records a call that failed without a response, such as a connection or read timeout.
+     *
+     * @param sample the sample returned by {@link #start()}
+     * @param method the HTTP method of the call
+     * @param uri the URI of the call
+     */
+    public void stop(Timer.Sample sample, HttpMethod method, URI uri) {
+        String endpoint = endpoint(uri);
+        record(sample, method, endpoint, "IO_ERROR");
+        countError(endpoint, "io_error");
+    }
+
+    /**
+     * Forgets a call that was abandoned before its response arrived.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Maps a GitHub API URI to the template of the endpoint it calls.
+     *
+     * @param uri the URI of the call
+     * @return the endpoint template, or {@code "other"} for an endpoint this application does not call
+     */
+    static String endpoint(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        if (REPOSITORIES.matcher(path).matches()) {
+            return "/users/{username}/repos";
+        }
+        if (BRANCHES.matcher(path).matches()) {
+            return "/repos/{owner}/{repo}/branches";
+        }
+        if (GRAPHQL.matcher(path).matches()) {
+            return "/graphql";
+        }
+        return "other";
+    }
+
+    private void record(Timer.Sample sample, HttpMethod method, String endpoint, String status) {
+        inFlight.decrementAndGet();
+        sample.stop(Timer.builder("github.upstream.requests")
+                .description("GitHub API calls by endpoint template and response status")
+                .tag("endpoint", endpoint)
+                .tag("method", method.name())
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private void countError(String endpoint, String reason) {
+        Counter.builder("github.upstream.errors")
+                .description("GitHub API calls that failed, by endpoint template and reason")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+}
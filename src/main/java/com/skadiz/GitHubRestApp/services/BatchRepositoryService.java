@@ -0,0 +1,160 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.skadiz.GitHubRestApp.dto.BatchResultDto;
+import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubTimeoutException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubUnavailableException;
+import com.skadiz.GitHubRestApp.exceptions.InvalidRequestException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Service class serving the repositories of many users in one request. Usernames are deduplicated
+ * case-insensitively, and at most {@code github.batch.max-concurrency} users are assembled at the same time,
+ * each through the {@link RepositoryCacheService} so that cached listings are served at once and users
+ * requested by concurrent batches share one aggregation. The aggregations started by a batch share one set of
+ * {@code github.fanout.max-concurrency} branch lookup slots, so a batch sends no more lookups at a time than a
+ * single user does. A failure is reported for its user only.
+ */
+@Service
+public class BatchRepositoryService {
+    private static final Logger log = LoggerFactory.getLogger(BatchRepositoryService.class);
+
+    private final RepositoryCacheService repositoryCacheService;
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+    private final int maxLookups;
+    private final int maxUsernames;
+
+    /**
+     * Constructs a new BatchRepositoryService.
+     *
+     * @param repositoryCacheService the service serving cached repositories together with their branches
+     * @param executor the executor running the users of a batch concurrently
+     * @param maxConcurrency the maximum number of users of one batch assembled at the same time
+     * @param maxLookups the maximum number of branch lookups in flight for one batch
+     * @param maxUsernames the maximum number of distinct usernames in one batch
+     */
+    public BatchRepositoryService(RepositoryCacheService repositoryCacheService,
+                                  @Qualifier("gitHubExecutor") ExecutorService executor,
+                                  @Value("${github.batch.max-concurrency}") int maxConcurrency,
+                                  @Value("${github.fanout.max-concurrency}") int maxLookups,
+                                  @Value("${github.batch.max-usernames}") int maxUsernames) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("github.batch.max-concurrency must be at least 1");
+        }
+        this.repositoryCacheService = repositoryCacheService;
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.maxLookups = maxLookups;
+        this.maxUsernames = maxUsernames;
+    }
+
+    /**
+     * Removes blank and duplicate usernames, keeping the first spelling of each GitHub login.
+     *
+     * @param usernames the requested usernames
+     * @return the distinct usernames in request order
+     * @throws InvalidRequestException if no username or more than {@code github.batch.max-usernames} remain
+     */
+    public List<String> distinct(List<String> usernames) {
+        Map<String, String> distinct = new LinkedHashMap<>();
+        for (String username : usernames == null ? List.<String>of() : usernames) {
+            if (username != null && !username.isBlank()) {
+                // GitHub logins are case-insensitive
+                distinct.putIfAbsent(username.strip().toLowerCase(Locale.ROOT), username.strip());
+            }
+        }
+        if (distinct.isEmpty() || distinct.size() > maxUsernames) {
+            throw new InvalidRequestException("Between 1 and " + maxUsernames + " usernames are accepted");
+        }
+        return new ArrayList<>(distinct.values());
+    }
+
+    /**
+     * Retrieves the repositories of every given user, handing each user's result to the consumer on the calling
+     * thread as soon as it is complete, in completion order. Returns once every user was handed out; if the
+     * consumer throws, the users not started yet are cancelled. Running users are not interrupted, since other
+     * callers may be waiting for the same aggregation.
+     *
+     * @param usernames the distinct usernames, as returned by {@link #distinct(List)}
+     * @param consumer the consumer receiving the result of each user
+     * @throws GitHubApiException if interrupted while waiting for the results
+     */
+    public void forEach(List<String> usernames, Consumer<BatchResultDto> consumer) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Semaphore lookupPermits = new Semaphore(maxLookups);
+        CompletionService<BatchResultDto> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<BatchResultDto>> futures = new ArrayList<>();
+        try {
+            for (String username : usernames) {
+                futures.add(completionService.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return fetch(username, lookupPermits);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                consumer.accept(completionService.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitHubApiException("Interrupted while waiting for GitHub API");
+        } catch (ExecutionException e) {
+            // fetch reports every failure in its result, so only a cancelled or interrupted user ends up here
+            throw new GitHubApiException("GitHub API error: " + e.getCause().getMessage());
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private BatchResultDto fetch(String username, Semaphore lookupPermits) {
+        BatchResultDto result = new BatchResultDto();
+        result.setUsername(username);
+        try {
+            result.setRepositories(RepositoryAggregationService.withLookupPermits(lookupPermits,
+                    () -> repositoryCacheService.getRepositoriesWithBranches(username)));
+        } catch (UserNotFoundException e) {
+            fail(result, HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (RateLimitExceededException e) {
+            fail(result, HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (GitHubTimeoutException e) {
+            fail(result, HttpStatus.GATEWAY_TIMEOUT, e.getMessage());
+        } catch (GitHubUnavailableException e) {
+            fail(result, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (GitHubApiException e) {
+            fail(result, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Unexpected error in batch for user {}", username, e);
+            fail(result, HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+        }
+        return result;
+    }
+
+    private static void fail(BatchResultDto result, HttpStatus status, String message) {
+        result.setStatus(status.value());
+        result.setMessage(message);
+    }
+}
@@ -0,0 +1,320 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.skadiz.GitHubRestApp.dto.BranchChangeDto;
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.SubscriptionLimitException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class notifying subscribers when the branch heads of a user's repositories move.
+ * Each watched user is polled once per interval however many subscribers it has: the poll reuses the branches
+ * of unchanged repositories and goes out with conditional requests, so a user whose repositories did not move
+ * costs a single {@code 304 Not Modified} listing call. The new listing is diffed with the previous one by
+ * commit SHA and only the moved branches are pushed to every subscriber of the user.
+ */
+@Service
+public class BranchChangeFeed implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(BranchChangeFeed.class);
+
+    /**
+     * Receiver of the changes of one watched user. Its methods are called from one poll at a time.
+     */
+    public interface Subscriber {
+
+        /**
+         * Delivers the moved branches of one repository.
+         *
+         * @param change the changed and deleted branches of the repository
+         * @throws IOException if the subscriber is gone, which ends its subscription
+         */
+        void send(BranchChangeDto change) throws IOException;
+
+        /**
+         * Signals a poll that found no change, keeping the connection of the subscriber alive.
+         *
+         * @throws IOException if the subscriber is gone, which ends its subscription
+         */
+        void heartbeat() throws IOException;
+
+        /**
+         * Ends the subscription from the server side, e.g. because the user no longer exists.
+         */
+        void close();
+    }
+
+    /**
+     * A watched user: its subscribers and the listing the next poll is diffed with.
+     */
+    private static final class Watch {
+        private final String key;
+        private final String username;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean polling = new AtomicBoolean();
+        private volatile List<RepositoryDto> snapshot;
+
+        private Watch(String key, String username, List<RepositoryDto> snapshot) {
+            this.key = key;
+            this.username = username;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private final RepositoryCacheService repositoryCacheService;
+    private final RepositoryAggregationService aggregationService;
+    private final ExecutorService executor;
+    private final int maxWatchedUsers;
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+
+    /**
+     * Constructs a new BranchChangeFeed.
+     *
+     * @param repositoryCacheService the service whose cached listing, however old, spares branch lookups when
+     *                               the baseline of a new watch is fetched
+     * @param aggregationService the service fetching the baseline and polling the listings of watched users
+     * @param executor the executor polls run on
+     * @param maxWatchedUsers the most users watched at once
+     */
+    public BranchChangeFeed(RepositoryCacheService repositoryCacheService,
+                            RepositoryAggregationService aggregationService,
+                            @Qualifier("gitHubExecutor") ExecutorService executor,
+                            @Value("${github.change-feed.max-watched-users}") int maxWatchedUsers) {
+        this.repositoryCacheService = repositoryCacheService;
+        this.aggregationService = aggregationService;
+        this.executor = executor;
+        this.maxWatchedUsers = maxWatchedUsers;
+    }
+
+    /**
+     * Subscribes to the branch changes of a user. The first subscriber of a user fetches its current listing as
+     * the baseline, so an unknown user is reported right away. The baseline is not served from the listing
+     * cache, which may be older than the last moves: those would be reported as new by the first poll. The
+     * cached listing only lets the repositories that did not change since keep their branches.
+     *
+     * @param username the GitHub username, matched case-insensitively
+     * @param subscriber the subscriber receiving the changes
+     * @return an action ending the subscription, safe to run more than once
+     * @throws UserNotFoundException if the user is not found
+     * @throws SubscriptionLimitException if the user is not watched yet and no more users can be
+     */
+    public Runnable subscribe(String username, Subscriber subscriber) {
+        String key = username.toLowerCase(Locale.ROOT);
+        List<RepositoryDto> baseline = null;
+        if (!watches.containsKey(key)) {
+            if (watches.size() >= maxWatchedUsers) {
+                throw new SubscriptionLimitException("Too many users are watched, please try again later");
+            }
+            baseline = aggregationService.getRepositoriesWithBranches(username,
+                    repositoryCacheService.peekRepositoriesWithBranches(username));
+        }
+        // A watch removed since the check above starts without a baseline and takes its first poll as one
+        List<RepositoryDto> snapshot = baseline;
+        watches.compute(key, (k, watch) -> {
+            Watch result = watch != null ? watch : new Watch(k, username, snapshot);
+            result.subscribers.add(subscriber);
+            return result;
+        });
+        return () -> unsubscribe(key, subscriber);
+    }
+
+    /**
+     * Starts a poll of every watched user whose previous poll has completed.
+     */
+    @Scheduled(fixedDelayString = "${github.change-feed.interval-ms}",
+            initialDelayString = "${github.change-feed.interval-ms}")
+    public void pollAll() {
+        for (Watch watch : watches.values()) {
+            if (!watch.polling.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        poll(watch);
+                    } finally {
+                        watch.polling.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                watch.polling.set(false);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of users currently watched.
+     *
+     * @return the watched user count
+     */
+    public int getWatchedUserCount() {
+        return watches.size();
+    }
+
+    /**
+     * Polls one user and notifies its subscribers. A failed poll keeps the previous listing, so the changes
+     * are reported by the next successful one.
+     */
+    private void poll(Watch watch) {
+        List<RepositoryDto> previous = watch.snapshot;
+        List<RepositoryDto> current;
+        try {
+            current = RequestPriority.LOW.call(
+                    () -> aggregationService.getRepositoriesWithBranches(watch.username, previous));
+        } catch (UserNotFoundException e) {
+            polls.incrementAndGet();
+            watches.remove(watch.key, watch);
+            watch.subscribers.forEach(Subscriber::close);
+            return;
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            log.debug("Polling user {} for branch changes failed: {}", watch.username, e.getMessage());
+            notify(watch, List.of());
+            return;
+        }
+        polls.incrementAndGet();
+        watch.snapshot = current;
+        notify(watch, previous == null ? List.of() : diff(previous, current));
+    }
+
+    /**
+     * Sends the changes of a poll, or a heartbeat if there are none, to every subscriber of a user, dropping
+     * the subscribers that are gone.
+     */
+    private void notify(Watch watch, List<BranchChangeDto> changes) {
+        for (Subscriber subscriber : watch.subscribers) {
+            try {
+                if (changes.isEmpty()) {
+                    subscriber.heartbeat();
+                }
+                for (BranchChangeDto change : changes) {
+                    subscriber.send(change);
+                    events.incrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                unsubscribe(watch.key, subscriber);
+            }
+        }
+    }
+
+    private void unsubscribe(String key, Subscriber subscriber) {
+        watches.computeIfPresent(key, (k, watch) -> {
+            watch.subscribers.remove(subscriber);
+            return watch.subscribers.isEmpty() ? null : watch;
+        });
+    }
+
+    /**
+     * Compares two listings of a user by branch commit SHA.
+     *
+     * @return one change per repository with new, moved or deleted branches, in the order of the current listing
+     * followed by the deleted repositories
+     */
+    private static List<BranchChangeDto> diff(List<RepositoryDto> previous, List<RepositoryDto> current) {
+        Map<String, Map<String, String>> before = new HashMap<>();
+        for (RepositoryDto repository : previous) {
+            before.put(repository.getName(), heads(repository));
+        }
+        List<BranchChangeDto> changes = new ArrayList<>();
+        for (RepositoryDto repository : current) {
+            Map<String, String> oldHeads = before.remove(repository.getName());
+            if (oldHeads == null) {
+                oldHeads = Map.of();
+            }
+            List<BranchDto> moved = new ArrayList<>();
+            Set<String> remaining = new HashSet<>(oldHeads.keySet());
+            for (BranchDto branch : branches(repository)) {
+                remaining.remove(branch.getName());
+                if (!oldHeads.containsKey(branch.getName())
+                        || !Objects.equals(oldHeads.get(branch.getName()), sha(branch))) {
+                    moved.add(branch);
+                }
+            }
+            if (!moved.isEmpty() || !remaining.isEmpty()) {
+                changes.add(change(repository.getName(), moved, List.copyOf(remaining)));
+            }
+        }
+        before.forEach((name, heads) -> {
+            if (!heads.isEmpty()) {
+                changes.add(change(name, List.of(), List.copyOf(heads.keySet())));
+            }
+        });
+        return changes;
+    }
+
+    private static Map<String, String> heads(RepositoryDto repository) {
+        Map<String, String> heads = new HashMap<>();
+        for (BranchDto branch : branches(repository)) {
+            heads.put(branch.getName(), sha(branch));
+        }
+        return heads;
+    }
+
+    private static List<BranchDto> branches(RepositoryDto repository) {
+        return repository.getBranches() != null ? repository.getBranches() : List.of();
+    }
+
+    private static String sha(BranchDto branch) {
+        return branch.getCommit() != null ? branch.getCommit().getSha() : null;
+    }
+
+    private static BranchChangeDto change(String repository, List<BranchDto> branches, List<String> deleted) {
+        BranchChangeDto change = new BranchChangeDto();
+        change.setRepository(repository);
+        change.setBranches(branches);
+        change.setDeleted(deleted.stream().sorted().toList());
+        return change;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("github.change_feed.watched_users", watches, Map::size)
+                .description("Users whose branch heads are polled for subscribers")
+                .register(registry);
+        Gauge.builder("github.change_feed.subscribers", watches,
+                        w -> w.values().stream().mapToInt(watch -> watch.subscribers.size()).sum())
+                .description("Open change feed subscriptions")
+                .register(registry);
+        FunctionCounter.builder("github.change_feed.polls", polls, AtomicLong::get)
+                .tag("result", "polled")
+                .description("Polls of watched users, by result")
+                .register(registry);
+        FunctionCounter.builder("github.change_feed.polls", failures, AtomicLong::get)
+                .tag("result", "failed")
+                .description("Polls of watched users, by result")
+                .register(registry);
+        FunctionCounter.builder("github.change_feed.events", events, AtomicLong::get)
+                .description("Repository changes sent to subscribers")
+                .register(registry);
+    }
+}
@@ -0,0 +1,202 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.CommitDto;
+import com.skadiz.GitHubRestApp.dto.OwnerDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class fetching repositories, branches and head commit SHAs through the GitHub GraphQL API.
+ * One query returns up to 100 non-fork repositories together with their first 100 branches, so a typical
+ * account needs a single round trip instead of one call per repository. Repositories with more branches
+ * are completed with follow-up queries. Only public repositories are listed, as by the REST API, although
+ * the configured token may see private ones.
+ */
+@Service
+public class GitHubGraphQlService {
+    private static final String REFS_FIELDS = """
+            pageInfo { hasNextPage endCursor }
+            nodes { name target { oid } }
+            """;
+
+    private static final String REPOSITORIES_QUERY = """
+            query($login: String!, $after: String) {
+              repositoryOwner(login: $login) {
+                repositories(first: 100, after: $after, isFork: false, privacy: PUBLIC, ownerAffiliations: OWNER,
+                             orderBy: {field: NAME, direction: ASC}) {
+                  pageInfo { hasNextPage endCursor }
+                  nodes {
+                    name
+                    isFork
+                    owner { login }
+                    pushedAt
+                    updatedAt
+                    refs(refPrefix: "refs/heads/", first: 100, orderBy: {field: ALPHABETICAL, direction: ASC}) {
+            """ + REFS_FIELDS + """
+                    }
+                  }
+                }
+              }
+            }
+            """;
+
+    private static final String BRANCHES_QUERY = """
+            query($owner: String!, $name: String!, $after: String) {
+              repository(owner: $owner, name: $name) {
+                refs(refPrefix: "refs/heads/", first: 100, after: $after,
+                     orderBy: {field: ALPHABETICAL, direction: ASC}) {
+            """ + REFS_FIELDS + """
+                }
+              }
+            }
+            """;
+
+    private final RestTemplate restTemplate;
+    private final String graphQlUrl;
+
+    /**
+     * Constructs a new GitHubGraphQlService.
+     *
+     * @param restTemplate the RestTemplate to use for API requests
+     * @param graphQlUrl the URL of the GitHub GraphQL endpoint
+     */
+    public GitHubGraphQlService(RestTemplate restTemplate, @Value("${github.api.graphql-url}") String graphQlUrl) {
+        this.restTemplate = restTemplate;
+        this.graphQlUrl = graphQlUrl;
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user along with their branches.
+     *
+     * @param username the GitHub username
+     * @return a list of RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws RateLimitExceededException if the GraphQL rate limit is exhausted
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     */
+    public List<RepositoryDto> getRepositoriesWithBranches(String username) {
+        List<RepositoryDto> repositories = new ArrayList<>();
+        String after = null;
+        do {
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("login", username);
+            variables.put("after", after);
+            JsonNode owner = query(REPOSITORIES_QUERY, variables).path("repositoryOwner");
+            if (owner.isMissingNode() || owner.isNull()) {
+                throw new UserNotFoundException("User not found");
+            }
+            JsonNode connection = owner.path("repositories");
+            for (JsonNode node : connection.path("nodes")) {
+                RepositoryDto repository = toRepository(node);
+                JsonNode refs = node.path("refs");
+                repository.setBranches(toBranches(refs));
+                if (refs.path("pageInfo").path("hasNextPage").asBoolean()) {
+                    repository.getBranches().addAll(remainingBranches(repository,
+                            refs.path("pageInfo").path("endCursor").asText()));
+                }
+                repositories.add(repository);
+            }
+            after = nextCursor(connection);
+        } while (after != null);
+        return repositories;
+    }
+
+    private List<BranchDto> remainingBranches(RepositoryDto repository, String cursor) {
+        List<BranchDto> branches = new ArrayList<>();
+        String after = cursor;
+        do {
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("owner", repository.getOwner().getLogin());
+            variables.put("name", repository.getName());
+            variables.put("after", after);
+            JsonNode refs = query(BRANCHES_QUERY, variables).path("repository").path("refs");
+            branches.addAll(toBranches(refs));
+            after = nextCursor(refs);
+        } while (after != null);
+        return branches;
+    }
+
+    private JsonNode query(String query, Map<String, Object> variables) {
+        ResponseEntity<JsonNode> entity;
+        try {
+            entity = restTemplate.postForEntity(graphQlUrl, Map.of("query", query, "variables", variables),
+                    JsonNode.class);
+        } catch (HttpClientErrorException e) {
+            throw GitHubService.clientError(e);
+        } catch (ResourceAccessException e) {
+            throw GitHubService.networkError(e);
+        } catch (RestClientException e) {
+            throw new GitHubApiException("GitHub API error: " + e.getMessage());
+        }
+        JsonNode response = entity.getBody();
+        if (response == null) {
+            throw new GitHubApiException("GitHub API error: empty GraphQL response");
+        }
+        JsonNode errors = response.path("errors");
+        if (errors.isArray() && !errors.isEmpty()) {
+            JsonNode error = errors.get(0);
+            String type = error.path("type").asText();
+            if ("NOT_FOUND".equals(type)) {
+                throw new UserNotFoundException("User not found");
+            }
+            if ("RATE_LIMITED".equals(type)) {
+                // Reported with a 200 response, whose headers still tell when the GraphQL quota resets
+                throw new RateLimitExceededException("API rate limit exceeded. Please try again later.",
+                        GitHubService.retryAfterSeconds(entity.getHeaders()));
+            }
+            throw new GitHubApiException("GitHub API error: " + error.path("message").asText(type));
+        }
+        return response.path("data");
+    }
+
+    private static String nextCursor(JsonNode connection) {
+        JsonNode pageInfo = connection.path("pageInfo");
+        return pageInfo.path("hasNextPage").asBoolean() ? pageInfo.path("endCursor").asText() : null;
+    }
+
+    private static RepositoryDto toRepository(JsonNode node) {
+        OwnerDto owner = new OwnerDto();
+        owner.setLogin(node.path("owner").path("login").asText());
+        RepositoryDto repository = new RepositoryDto();
+        repository.setName(node.path("name").asText());
+        repository.setFork(node.path("isFork").asBoolean());
+        repository.setOwner(owner);
+        repository.setPushedAt(instant(node.path("pushedAt")));
+        repository.setUpdatedAt(instant(node.path("updatedAt")));
+        return repository;
+    }
+
+    private static Instant instant(JsonNode node) {
+        return node.isTextual() ? Instant.parse(node.asText()) : null;
+    }
+
+    private static List<BranchDto> toBranches(JsonNode refs) {
+        List<BranchDto> branches = new ArrayList<>();
+        for (JsonNode ref : refs.path("nodes")) {
+            CommitDto commit = new CommitDto();
+            commit.setSha(ref.path("target").path("oid").asText());
+            BranchDto branch = new BranchDto();
+            branch.setName(ref.path("name").asText());
+            branch.setCommit(commit);
+            branches.add(branch);
+        }
+        return branches;
+    }
+}
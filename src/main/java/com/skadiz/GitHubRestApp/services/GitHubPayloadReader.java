@@ -0,0 +1,215 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.CommitDto;
+import com.skadiz.GitHubRestApp.dto.OwnerDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for the repository and branch pages of the GitHub REST API.
+ * A GitHub repository object carries dozens of fields, of which only a handful are used; instead of binding the
+ * whole page, the reader walks the tokens once, skips every other field with {@link JsonParser#skipChildren()}
+ * and drops forks before a DTO is created for them.
+ */
+public final class GitHubPayloadReader {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /**
+     * Reads one page of a response body into items.
+     *
+     * @param <T> the item type
+     */
+    @FunctionalInterface
+    public interface PageReader<T> {
+
+        /**
+         * Reads the items of a page.
+         *
+         * @param body the response body, may be empty
+         * @return the items in the order of the page
+         * @throws IOException if the body cannot be read or is not a JSON array
+         */
+        List<T> read(InputStream body) throws IOException;
+    }
+
+    private GitHubPayloadReader() {
+    }
+
+    /**
+     * Reads a page of {@code /users/{username}/repos} and keeps its non-fork repositories.
+     *
+     * @param body the response body, may be empty
+     * @return the non-fork repositories in the order of the page
+     * @throws IOException if the body cannot be read or is not a JSON array
+     */
+    public static List<RepositoryDto> readRepositories(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            List<RepositoryDto> repositories = new ArrayList<>();
+            if (!startArray(parser)) {
+                return repositories;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                RepositoryDto repository = readRepository(parser);
+                if (repository != null) {
+                    repositories.add(repository);
+                }
+            }
+            return repositories;
+        }
+    }
+
+    /**
+     * Reads a page of {@code /repos/{owner}/{repo}/branches}.
+     *
+     * @param body the response body, may be empty
+     * @return the branches in the order of the page
+     * @throws IOException if the body cannot be read or is not a JSON array
+     */
+    public static List<BranchDto> readBranches(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            List<BranchDto> branches = new ArrayList<>();
+            if (!startArray(parser)) {
+                return branches;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                branches.add(readBranch(parser));
+            }
+            return branches;
+        }
+    }
+
+    /**
+     * Reads a repository object, leaving the parser on its closing brace.
+     *
+     * @return the repository, or null if it is a fork
+     */
+    private static RepositoryDto readRepository(JsonParser parser) throws IOException {
+        String name = null;
+        String login = null;
+        boolean fork = false;
+        Instant pushedAt = null;
+        Instant updatedAt = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> name = parser.getValueAsString();
+                case "owner" -> login = readString(parser, value, "login");
+                case "fork" -> fork = parser.getValueAsBoolean();
+                case "pushed_at" -> pushedAt = instant(parser);
+                case "updated_at" -> updatedAt = instant(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        if (fork) {
+            return null;
+        }
+        RepositoryDto repository = new RepositoryDto();
+        repository.setName(name);
+        if (login != null) {
+            OwnerDto owner = new OwnerDto();
+            owner.setLogin(login);
+            repository.setOwner(owner);
+        }
+        repository.setPushedAt(pushedAt);
+        repository.setUpdatedAt(updatedAt);
+        return repository;
+    }
+
+    private static BranchDto readBranch(JsonParser parser) throws IOException {
+        BranchDto branch = new BranchDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> branch.setName(parser.getValueAsString());
+                case "commit" -> {
+                    String sha = readString(parser, value, "sha");
+                    if (sha != null) {
+                        CommitDto commit = new CommitDto();
+                        commit.setSha(sha);
+                        branch.setCommit(commit);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return branch;
+    }
+
+    /**
+     * Reads one string field of a nested object and skips the others, leaving the parser on its closing brace.
+     *
+     * @return the field value, or null if the value is not an object or has no such field
+     */
+    private static String readString(JsonParser parser, JsonToken value, String name) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                result = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads a timestamp. GitHub always writes them as {@code yyyy-MM-ddTHH:mm:ssZ}, which is read by position
+     * because going through {@link Instant#parse} allocates more than the rest of the repository together.
+     */
+    private static Instant instant(JsonParser parser) throws IOException {
+        String text = parser.getValueAsString();
+        if (text == null) {
+            return null;
+        }
+        try {
+            if (text.length() == 20 && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == 'T'
+                    && text.charAt(13) == ':' && text.charAt(16) == ':' && text.charAt(19) == 'Z') {
+                return LocalDateTime.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10),
+                        digits(text, 11, 13), digits(text, 14, 16), digits(text, 17, 19)).toInstant(ZoneOffset.UTC);
+            }
+            return Instant.parse(text);
+        } catch (DateTimeException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int digits(String text, int start, int end) {
+        return Integer.parseInt(text, start, end, 10);
+    }
+
+    /**
+     * Moves the parser onto the opening bracket of the page.
+     *
+     * @return false if the body is empty
+     */
+    private static boolean startArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return false;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a JSON array but found " + token);
+        }
+        return true;
+    }
+}
@@ -3,81 +3,273 @@ package com.skadiz.GitHubRestApp.services;
 import com.skadiz.GitHubRestApp.dto.BranchDto;
 import com.skadiz.GitHubRestApp.dto.RepositoryDto;
 import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubUnavailableException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
 import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import com.skadiz.GitHubRestApp.interceptors.CallNotPermittedException;
+import com.skadiz.GitHubRestApp.util.LinkHeader;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 
 /**
  * Service class for interacting with the GitHub API.
+ * List endpoints are paginated with {@code per_page=100}; once the first page reveals the page count
+ * through the {@code Link} header, the remaining pages are prefetched concurrently.
+ * Pages are decoded straight from the response stream by {@link GitHubPayloadReader}, which skips the fields
+ * this application does not use and drops forks while parsing.
  */
 @Service
 public class GitHubService {
+    /**
+     * The largest page size accepted by the GitHub list endpoints.
+     */
+    public static final int PER_PAGE = 100;
+
     private final RestTemplate restTemplate;
     private final String githubApiUrl;
+    private final ExecutorService executor;
+    private final int pageConcurrency;
 
     /**
      * Constructs a new GitHubService with the specified RestTemplate and GitHub API URL.
      *
      * @param restTemplate the RestTemplate to use for API requests
      * @param githubApiUrl the base URL for the GitHub API
+     * @param executor the executor used to prefetch subsequent pages
+     * @param pageConcurrency the maximum number of pages of one listing fetched at the same time
      */
-    public GitHubService(RestTemplate restTemplate, @Value("${github.api.url}") String githubApiUrl) {
+    public GitHubService(RestTemplate restTemplate,
+                         @Value("${github.api.url}") String githubApiUrl,
+                         @Qualifier("gitHubExecutor") ExecutorService executor,
+                         @Value("${github.pagination.max-concurrency}") int pageConcurrency) {
         this.restTemplate = restTemplate;
         this.githubApiUrl = githubApiUrl;
+        this.executor = executor;
+        this.pageConcurrency = pageConcurrency;
     }
 
     /**
-     * Retrieves the non-fork repositories of a given GitHub user.
+     * Retrieves the non-fork repositories of a given GitHub user across all pages.
      *
      * @param username the GitHub username
      * @return a list of RepositoryDto objects representing the user's non-fork repositories
      * @throws UserNotFoundException if the user is not found
+     * @throws RateLimitExceededException if the GitHub API rate limit is exceeded
      * @throws GitHubApiException if there is an error with the GitHub API or network issues
      */
     public List<RepositoryDto> getUserRepositories(String username) {
+        return joinPages(getUserRepositoryPages(username));
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user page by page.
+     * The first page is fetched before this method returns, so a missing user is reported immediately;
+     * the remaining pages are already in flight and complete in the background.
+     *
+     * @param username the GitHub username
+     * @return the pages in order, each completing with that page's non-fork repositories
+     * @throws UserNotFoundException if the user is not found
+     * @throws RateLimitExceededException if the GitHub API rate limit is exceeded
+     * @throws GitHubUnavailableException if the call is refused while GitHub is failing or overloaded
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     */
+    public List<CompletableFuture<List<RepositoryDto>>> getUserRepositoryPages(String username) {
+        String url = githubApiUrl + "/users/" + username + "/repos?per_page=" + PER_PAGE;
+        return fetchPages(url, this::fetchRepositoryPage);
+    }
+
+    /**
+     * Retrieves the branches of a given repository for a specified GitHub user across all pages.
+     *
+     * @param username the GitHub username
+     * @param repositoryName the name of the repository
+     * @return a list of BranchDto objects representing the branches of the repository
+     * @throws RateLimitExceededException if the GitHub API rate limit is exceeded
+     * @throws GitHubUnavailableException if the call is refused while GitHub is failing or overloaded
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     */
+    public List<BranchDto> getRepositoryBranches(String username, String repositoryName) {
+        String url = githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches?per_page=" + PER_PAGE;
+        return joinPages(fetchPages(url, this::fetchBranchPage));
+    }
+
+    private ResponseEntity<List<RepositoryDto>> fetchRepositoryPage(String url) {
         try {
-            String url = githubApiUrl + "/users/" + username + "/repos";
-            ResponseEntity<RepositoryDto[]> response = restTemplate.exchange(
-                    url, HttpMethod.GET, null, RepositoryDto[].class, username);
-            RepositoryDto[] repos = response.getBody();
-            return Optional.ofNullable(repos)
-                    .stream().flatMap(Arrays::stream)
-                    .filter(repo -> !repo.isFork())
-                    .collect(Collectors.toList());
+            return fetchPage(url, GitHubPayloadReader::readRepositories);
         } catch (HttpClientErrorException.NotFound e) {
             throw new UserNotFoundException("User not found");
         } catch (HttpClientErrorException e) {
-            throw new GitHubApiException("GitHub API error: " + e.getStatusCode());
+            throw clientError(e);
         } catch (ResourceAccessException e) {
-            throw new GitHubApiException("Network error: " + e.getMessage());
+            throw networkError(e);
+        }
+    }
+
+    private ResponseEntity<List<BranchDto>> fetchBranchPage(String url) {
+        try {
+            return fetchPage(url, GitHubPayloadReader::readBranches);
+        } catch (HttpClientErrorException e) {
+            throw clientError(e);
+        } catch (ResourceAccessException e) {
+            throw networkError(e);
         }
     }
 
     /**
-     * Retrieves the branches of a given repository for a specified GitHub user.
+     * Translates a 4xx response from GitHub. A primary or secondary rate limit becomes a
+     * {@link RateLimitExceededException} telling when to retry.
      *
-     * @param username the GitHub username
-     * @param repositoryName the name of the repository
-     * @return a list of BranchDto objects representing the branches of the repository
-     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @param e the exception thrown by the RestTemplate
+     * @return the exception to throw
      */
-    public List<BranchDto> getRepositoryBranches(String username, String repositoryName) {
-        String url = githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches";
-        BranchDto[] branches = restTemplate.getForObject(url, BranchDto[].class);
+    static RuntimeException clientError(HttpClientErrorException e) {
+        if (isRateLimited(e.getStatusCode(), e.getResponseHeaders())) {
+            return new RateLimitExceededException("API rate limit exceeded. Please try again later.",
+                    retryAfterSeconds(e.getResponseHeaders()));
+        }
+        return new GitHubApiException("GitHub API error: " + e.getStatusCode());
+    }
+
+    /**
+     * Translates a call that got no response from GitHub. A call refused by the circuit breaker or the bulkhead
+     * becomes a {@link GitHubUnavailableException} telling when to retry.
+     *
+     * @param e the exception thrown by the RestTemplate
+     * @return the exception to throw
+     */
+    static GitHubApiException networkError(ResourceAccessException e) {
+        if (e.getCause() instanceof CallNotPermittedException refused) {
+            return new GitHubUnavailableException("GitHub API is temporarily unavailable: " + refused.getMessage(),
+                    refused.getRetryAfterSeconds());
+        }
+        return new GitHubApiException("Network error: " + e.getMessage());
+    }
+
+    private <T> ResponseEntity<List<T>> fetchPage(String url, GitHubPayloadReader.PageReader<T> reader) {
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> new ResponseEntity<>(reader.read(response.getBody()), response.getHeaders(),
+                        response.getStatusCode()));
+    }
 
-        return Optional.ofNullable(branches)
-                .map(Arrays::asList)
+    /**
+     * Tells whether an error response is GitHub refusing the call because of a primary or secondary rate limit.
+     *
+     * @param status the response status
+     * @param headers the response headers
+     * @return {@code true} if the call was refused because of a rate limit
+     */
+    public static boolean isRateLimited(HttpStatusCode status, HttpHeaders headers) {
+        if (status.value() == 429) {
+            return true;
+        }
+        return status.value() == 403 && headers != null
+                && ("0".equals(headers.getFirst("X-RateLimit-Remaining")) || headers.containsKey(HttpHeaders.RETRY_AFTER));
+    }
+
+    /**
+     * Returns the number of seconds after which a rate-limited call may be retried, from the
+     * {@code Retry-After} header or else the {@code X-RateLimit-Reset} time.
+     *
+     * @param headers the headers of the rate-limited response, or {@code null} if none were received
+     * @return the delay in seconds, or -1 if unknown
+     */
+    static long retryAfterSeconds(HttpHeaders headers) {
+        if (headers == null) {
+            return -1;
+        }
+        try {
+            if (headers.containsKey(HttpHeaders.RETRY_AFTER)) {
+                return Long.parseLong(headers.getFirst(HttpHeaders.RETRY_AFTER));
+            }
+            if (headers.containsKey("X-RateLimit-Reset")) {
+                long reset = Long.parseLong(headers.getFirst("X-RateLimit-Reset"));
+                return Math.max(0, reset - System.currentTimeMillis() / 1000);
+            }
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    private <T> List<CompletableFuture<List<T>>> fetchPages(String firstPageUrl,
+                                                           Function<String, ResponseEntity<List<T>>> fetcher) {
+        ResponseEntity<List<T>> first = fetcher.apply(firstPageUrl);
+        List<CompletableFuture<List<T>>> pages = new ArrayList<>();
+        pages.add(CompletableFuture.completedFuture(items(first)));
+
+        LinkHeader links = LinkHeader.of(first == null ? null : first.getHeaders());
+        OptionalInt lastPage = links.lastPage();
+        if (lastPage.isPresent()) {
+            Semaphore permits = new Semaphore(pageConcurrency);
+            for (int page = 2; page <= lastPage.getAsInt(); page++) {
+                String pageUrl = links.pageUrl(page);
+                pages.add(CompletableFuture.supplyAsync(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        return items(fetcher.apply(pageUrl));
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            }
+        } else if (links.get("next") != null) {
+            // Without a "last" link the page count is unknown, so the remaining pages are followed in sequence
+            String next = links.get("next");
+            pages.add(CompletableFuture.supplyAsync(() -> followNext(next, fetcher), executor));
+        }
+        return pages;
+    }
+
+    private <T> List<T> followNext(String url, Function<String, ResponseEntity<List<T>>> fetcher) {
+        List<T> result = new ArrayList<>();
+        String next = url;
+        while (next != null) {
+            ResponseEntity<List<T>> response = fetcher.apply(next);
+            result.addAll(items(response));
+            next = LinkHeader.of(response == null ? null : response.getHeaders()).get("next");
+        }
+        return result;
+    }
+
+    private static <T> List<T> items(ResponseEntity<List<T>> response) {
+        return Optional.ofNullable(response)
+                .map(ResponseEntity::getBody)
                 .orElse(Collections.emptyList());
     }
-}
 
+    private static <T> List<T> joinPages(List<CompletableFuture<List<T>>> pages) {
+        List<T> result = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<T>> page : pages) {
+                result.addAll(page.join());
+            }
+        } catch (CompletionException e) {
+            pages.forEach(page -> page.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new GitHubApiException("GitHub API error: " + e.getCause().getMessage());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skadiz.GitHubRestApp.cache.EncodedListing;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes a repository listing into the response served for it: the JSON array, a gzip copy of it when it is
+ * large enough, and the digest its entity tags are derived from. A listing re-encoded to the same JSON keeps the
+ * last modification time of the previous one, so clients revalidating with {@code If-Modified-Since} are not
+ * sent content they already hold.
+ */
+@Component
+public class ListingEncoder {
+    private final ObjectMapper objectMapper;
+    private final boolean compression;
+    private final int compressionMinBytes;
+    private final Timer serializationTimer;
+    private final Clock clock;
+
+    /**
+     * Constructs a new ListingEncoder.
+     *
+     * @param objectMapper the mapper used to write repositories
+     * @param meterRegistry the registry the serialization timer is registered with
+     * @param compression whether a gzip copy of the JSON is kept
+     * @param compressionMinBytes the smallest JSON size in bytes that is compressed
+     */
+    @Autowired
+    public ListingEncoder(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                          @Value("${github.listing-cache.compression.enabled}") boolean compression,
+                          @Value("${github.listing-cache.compression.min-bytes}") int compressionMinBytes) {
+        this(objectMapper, meterRegistry, compression, compressionMinBytes, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new ListingEncoder.
+     *
+     * @param objectMapper the mapper used to write repositories
+     * @param meterRegistry the registry the serialization timer is registered with
+     * @param compression whether a gzip copy of the JSON is kept
+     * @param compressionMinBytes the smallest JSON size in bytes that is compressed
+     * @param clock the clock stamping encoded listings
+     */
+    public ListingEncoder(ObjectMapper objectMapper, MeterRegistry meterRegistry, boolean compression,
+                          int compressionMinBytes, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.compression = compression;
+        this.compressionMinBytes = compressionMinBytes;
+        this.serializationTimer = RepositoryAggregationService.stageTimer(meterRegistry, "serialization");
+        this.clock = clock;
+    }
+
+    /**
+     * Serializes a listing and compresses it.
+     *
+     * @param repositories the repositories with their branches
+     * @return the encoded listing
+     */
+    public EncodedListing encode(List<RepositoryDto> repositories) {
+        return encode(repositories, null);
+    }
+
+    /**
+     * Serializes a refreshed listing and compresses it.
+     *
+     * @param repositories the repositories with their branches
+     * @param previous the listing encoded before for the same user, or null if there is none
+     * @return the encoded listing, modified when the previous one was if their JSON is the same
+     */
+    public EncodedListing encode(List<RepositoryDto> repositories, EncodedListing previous) {
+        Timer.Sample sample = Timer.start();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(repositories);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] gzip = compression && json.length >= compressionMinBytes ? gzip(json) : null;
+        String digest = DigestUtils.md5DigestAsHex(json);
+        sample.stop(serializationTimer);
+        Instant now = clock.instant();
+        Instant lastModified = previous != null && previous.digest().equals(digest)
+                ? previous.lastModified()
+                : now.truncatedTo(ChronoUnit.SECONDS);
+        return new EncodedListing(repositories, json, gzip, digest, now, lastModified);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,96 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class refreshing the cached listings of the most requested users before they expire, so those users
+ * are always served from memory. Refreshes run with {@link RequestPriority#LOW} priority and only while the
+ * {@link RateLimitScheduler} reports spare quota above the reserve kept for user-facing calls; a round stops
+ * as soon as its calls are shed.
+ */
+@Service
+@ConditionalOnProperty(name = "github.prewarm.enabled", havingValue = "true")
+public class PrewarmService implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(PrewarmService.class);
+
+    private final RepositoryCacheService repositoryCacheService;
+    private final RateLimitScheduler rateLimitScheduler;
+    private final int topK;
+    private final long marginMillis;
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Constructs a new PrewarmService.
+     *
+     * @param repositoryCacheService the service caching repository listings
+     * @param rateLimitScheduler the scheduler reporting the remaining GitHub quota
+     * @param topK the number of most requested users kept warm
+     * @param marginMillis how long in milliseconds before its expiry a listing is refreshed
+     */
+    public PrewarmService(RepositoryCacheService repositoryCacheService,
+                          RateLimitScheduler rateLimitScheduler,
+                          @Value("${github.prewarm.top-k}") int topK,
+                          @Value("${github.prewarm.margin-ms}") long marginMillis) {
+        this.repositoryCacheService = repositoryCacheService;
+        this.rateLimitScheduler = rateLimitScheduler;
+        this.topK = topK;
+        this.marginMillis = marginMillis;
+    }
+
+    /**
+     * Refreshes the listings of the hot users that are missing or about to expire, most requested first.
+     */
+    @Scheduled(fixedDelayString = "${github.prewarm.interval-ms}", initialDelayString = "${github.prewarm.interval-ms}")
+    public void prewarm() {
+        for (String username : repositoryCacheService.pollHotUsernames(topK)) {
+            try {
+                boolean refreshed = RequestPriority.LOW.call(() -> repositoryCacheService.refreshIfExpiring(
+                        username, marginMillis, rateLimitScheduler::hasSpareQuota));
+                if (refreshed) {
+                    refreshes.incrementAndGet();
+                }
+            } catch (RateLimitExceededException e) {
+                // No spare quota left for this round
+                failures.incrementAndGet();
+                return;
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                log.debug("Pre-warming user {} failed: {}", username, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of listings refreshed ahead of their expiry.
+     *
+     * @return the refresh count
+     */
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("github.prewarm.refreshes", refreshes, AtomicLong::get)
+                .tag("result", "refreshed")
+                .description("Hot user listings refreshed in the background, by result")
+                .register(registry);
+        FunctionCounter.builder("github.prewarm.refreshes", failures, AtomicLong::get)
+                .tag("result", "failed")
+                .description("Hot user listings refreshed in the background, by result")
+                .register(registry);
+    }
+}
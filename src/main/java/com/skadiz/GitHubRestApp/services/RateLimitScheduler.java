@@ -0,0 +1,412 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Scheduler pacing GitHub API calls so the rate limit is not exhausted before it resets.
+ * <p>
+ * Calls are spread over a pool of API tokens, each with its own quota. Every call goes out with the token that
+ * can send it soonest, preferring the one with the most quota left, so throughput grows with the number of tokens.
+ * <p>
+ * The quota reported in the {@code X-RateLimit-Remaining} and {@code X-RateLimit-Reset} headers of each response
+ * drives a token bucket per API token: up to {@code burst} calls may go out at once, after which calls are released
+ * at the rate that spreads the remaining quota over the time left until the reset. Once its quota is spent, a token
+ * is paused until the reset. Secondary rate limits (429, or 403 with {@code Retry-After}) pause the token for the
+ * advertised delay, or with exponential backoff starting at one minute when no delay is given.
+ * <p>
+ * {@link RequestPriority#HIGH} calls wait up to {@code max-wait-ms} for their turn;
+ * {@link RequestPriority#LOW} calls never wait and are shed as soon as pacing applies or the remaining quota
+ * falls to the reserve. Shed calls fail with {@link RateLimitExceededException}.
+ */
+@Service
+public class RateLimitScheduler implements MeterBinder {
+    private static final long BASE_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final String CORE_RESOURCE = "core";
+
+    private final boolean enabled;
+    private final int burst;
+    private final int reserve;
+    private final long maxWaitMillis;
+    private final Clock clock;
+    private final List<TokenQuota> quotas;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong shedHigh = new AtomicLong();
+    private final AtomicLong shedLow = new AtomicLong();
+    private final AtomicLong secondaryLimits = new AtomicLong();
+    private final AtomicLong delayedMillis = new AtomicLong();
+
+    /**
+     * Constructs a new RateLimitScheduler.
+     *
+     * @param tokens the GitHub API tokens calls are spread over; anonymous calls are made if none is given
+     * @param enabled whether calls are paced
+     * @param burst the number of calls per token that may go out at once
+     * @param reserve the remaining quota below which low-priority calls are shed
+     * @param maxWaitMillis the longest time in milliseconds a high-priority call waits for its turn
+     */
+    @Autowired
+    public RateLimitScheduler(@Value("${github.api.tokens}") List<String> tokens,
+                              @Value("${github.rate-limit.enabled}") boolean enabled,
+                              @Value("${github.rate-limit.burst}") int burst,
+                              @Value("${github.rate-limit.reserve}") int reserve,
+                              @Value("${github.rate-limit.max-wait-ms}") long maxWaitMillis) {
+        this(tokens, enabled, burst, reserve, maxWaitMillis, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new RateLimitScheduler with the given clock.
+     *
+     * @param tokens the GitHub API tokens calls are spread over; anonymous calls are made if none is given
+     * @param enabled whether calls are paced
+     * @param burst the number of calls per token that may go out at once
+     * @param reserve the remaining quota below which low-priority calls are shed
+     * @param maxWaitMillis the longest time in milliseconds a high-priority call waits for its turn
+     * @param clock the clock used to pace calls
+     */
+    public RateLimitScheduler(List<String> tokens, boolean enabled, int burst, int reserve, long maxWaitMillis,
+                              Clock clock) {
+        this.enabled = enabled;
+        this.burst = burst;
+        this.reserve = reserve;
+        this.maxWaitMillis = maxWaitMillis;
+        this.clock = clock;
+        List<String> configured = tokens.stream().map(String::trim).filter(token -> !token.isEmpty()).toList();
+        List<TokenQuota> quotas = new ArrayList<>();
+        for (String token : configured.isEmpty() ? List.of("") : configured) {
+            quotas.add(new TokenQuota(quotas.size(), token, burst, clock.millis()));
+        }
+        this.quotas = List.copyOf(quotas);
+    }
+
+    /**
+     * Waits until a call with the given priority may be sent, and picks the token to send it with.
+     *
+     * @param priority the priority of the call
+     * @return the token to authenticate the call with, or an empty string for an anonymous call
+     * @throws RateLimitExceededException if the call is shed
+     */
+    public String acquire(RequestPriority priority) {
+        Permit permit = reserve(priority);
+        if (permit.waitMillis() > 0) {
+            try {
+                Thread.sleep(permit.waitMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitExceededException("Interrupted while waiting for the GitHub API rate limit");
+            }
+        }
+        return permit.token();
+    }
+
+    /**
+     * Reserves a slot for a call with the given priority without waiting for it, for callers that
+     * must not block, such as the reactive pipeline.
+     *
+     * @param priority the priority of the call
+     * @return the token to send the call with and how long to delay it
+     * @throws RateLimitExceededException if the call is shed
+     */
+    public Permit reserve(RequestPriority priority) {
+        lock.lock();
+        try {
+            long now = clock.millis();
+            TokenQuota best = null;
+            long bestWait = Long.MAX_VALUE;
+            for (TokenQuota quota : quotas) {
+                long wait = quota.waitMillis(now, burst);
+                if (wait < bestWait || (wait == bestWait && quota.headroom() > best.headroom())) {
+                    best = quota;
+                    bestWait = wait;
+                }
+            }
+            best.requests.incrementAndGet();
+            if (!enabled) {
+                return new Permit(best.token, 0);
+            }
+
+            long remaining = best.remaining;
+            if (priority == RequestPriority.LOW && (bestWait > 0 || (remaining >= 0 && remaining <= reserve))) {
+                shedLow.incrementAndGet();
+                best.requests.decrementAndGet();
+                throw shed(Math.max(bestWait, remaining >= 0 ? best.resetAtMillis - now : 0));
+            }
+            if (bestWait > maxWaitMillis) {
+                shedHigh.incrementAndGet();
+                best.requests.decrementAndGet();
+                throw shed(bestWait);
+            }
+            best.tokens -= 1;
+            if (remaining > 0) {
+                best.remaining--;
+            }
+            delayedMillis.addAndGet(bestWait);
+            return new Permit(best.token, bestWait);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the slot of a call that was admitted but never sent, e.g. because a circuit breaker or the
+     * bulkhead refused it afterwards, so that refused calls drain neither the token bucket nor the known quota.
+     *
+     * @param token the token the call was admitted with
+     */
+    public void refund(String token) {
+        TokenQuota quota = quotas.stream().filter(candidate -> candidate.token.equals(token)).findFirst().orElse(null);
+        if (quota == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            quota.requests.decrementAndGet();
+            if (!enabled) {
+                return;
+            }
+            quota.tokens = Math.min(burst, quota.tokens + 1);
+            if (quota.remaining >= 0 && clock.millis() < quota.resetAtMillis) {
+                quota.remaining++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates the known quota of a token from the headers of a GitHub API response. Only the {@code core}
+     * resource is the quota of REST calls: the headers of a response counted against another resource, such as
+     * a GraphQL query, leave the known quota unchanged.
+     *
+     * @param token the token the call was sent with
+     * @param status the response status
+     * @param headers the response headers
+     */
+    public void record(String token, HttpStatusCode status, HttpHeaders headers) {
+        TokenQuota quota = quotas.stream().filter(candidate -> candidate.token.equals(token)).findFirst().orElse(null);
+        if (quota == null) {
+            return;
+        }
+        Long remainingHeader = parse(headers.getFirst("X-RateLimit-Remaining"));
+        Long resetHeader = parse(headers.getFirst("X-RateLimit-Reset"));
+        Long retryAfter = parse(headers.getFirst(HttpHeaders.RETRY_AFTER));
+        String resource = headers.getFirst("X-RateLimit-Resource");
+        boolean core = resource == null || CORE_RESOURCE.equalsIgnoreCase(resource);
+        lock.lock();
+        try {
+            long now = clock.millis();
+            if (core && remainingHeader != null && resetHeader != null) {
+                quota.refill(now, burst);
+                quota.remaining = remainingHeader;
+                quota.resetAtMillis = TimeUnit.SECONDS.toMillis(resetHeader);
+            }
+            boolean primaryExhausted = remainingHeader != null && remainingHeader == 0;
+            if (status.value() == 429 || (status.value() == 403 && retryAfter != null && !primaryExhausted)) {
+                secondaryLimits.incrementAndGet();
+                quota.secondaryStrikes++;
+                long pause = retryAfter != null
+                        ? TimeUnit.SECONDS.toMillis(retryAfter)
+                        : Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(quota.secondaryStrikes - 1, 10));
+                quota.pausedUntilMillis = Math.max(quota.pausedUntilMillis, now + pause);
+            } else if (status.is2xxSuccessful() || status.value() == 304) {
+                quota.secondaryStrikes = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the remaining quota reported by GitHub across all tokens, less the calls sent since.
+     *
+     * @return the remaining quota, or -1 if unknown for every token
+     */
+    public long getRemaining() {
+        lock.lock();
+        try {
+            long now = clock.millis();
+            long total = -1;
+            for (TokenQuota quota : quotas) {
+                long remaining = quota.remaining(now);
+                if (remaining >= 0) {
+                    total = Math.max(total, 0) + remaining;
+                }
+            }
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tells whether the given number of low-priority calls can be spent without eating into the reserve
+     * kept for user-facing calls.
+     *
+     * @param calls the number of calls about to be made
+     * @return true if the known remaining quota leaves room for the calls, or if the quota is unknown
+     */
+    public boolean hasSpareQuota(long calls) {
+        long remaining = getRemaining();
+        return !enabled || remaining < 0 || remaining - calls > (long) reserve * quotas.size();
+    }
+
+    /**
+     * Returns the number of tokens calls are spread over.
+     *
+     * @return the size of the token pool
+     */
+    public int getTokenCount() {
+        return quotas.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("github.rate_limit.remaining", this, RateLimitScheduler::getRemaining)
+                .description("Remaining GitHub API quota, -1 if unknown")
+                .register(registry);
+        for (TokenQuota quota : quotas) {
+            String tag = String.valueOf(quota.index);
+            Gauge.builder("github.token.remaining", quota, this::remainingOf)
+                    .tag("token", tag)
+                    .description("Remaining GitHub API quota of one pooled token, -1 if unknown")
+                    .register(registry);
+            FunctionCounter.builder("github.token.requests", quota.requests, AtomicLong::get)
+                    .tag("token", tag)
+                    .description("GitHub calls sent with one pooled token")
+                    .register(registry);
+        }
+        FunctionCounter.builder("github.rate_limit.shed", shedHigh, AtomicLong::get)
+                .tag("priority", "high")
+                .description("GitHub calls shed by the rate limit scheduler")
+                .register(registry);
+        FunctionCounter.builder("github.rate_limit.shed", shedLow, AtomicLong::get)
+                .tag("priority", "low")
+                .description("GitHub calls shed by the rate limit scheduler")
+                .register(registry);
+        FunctionCounter.builder("github.rate_limit.secondary", secondaryLimits, AtomicLong::get)
+                .description("Secondary rate limit responses from GitHub")
+                .register(registry);
+        FunctionCounter.builder("github.rate_limit.delay", delayedMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Total time calls waited for the rate limit scheduler")
+                .register(registry);
+    }
+
+    private long remainingOf(TokenQuota quota) {
+        lock.lock();
+        try {
+            return quota.remaining(clock.millis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static RateLimitExceededException shed(long waitMillis) {
+        return new RateLimitExceededException("API rate limit exceeded. Please try again later.",
+                TimeUnit.MILLISECONDS.toSeconds(waitMillis + 999));
+    }
+
+    private static Long parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Slot reserved for one call.
+     *
+     * @param token the token to authenticate the call with, or an empty string for an anonymous call
+     * @param waitMillis how long in milliseconds the call has to be delayed
+     */
+    public record Permit(String token, long waitMillis) {
+    }
+
+    /**
+     * Quota and token bucket of one API token. Guarded by the scheduler lock.
+     */
+    private static class TokenQuota {
+        private final int index;
+        private final String token;
+        private final AtomicLong requests = new AtomicLong();
+        private long remaining = -1;
+        private long resetAtMillis;
+        private long pausedUntilMillis;
+        private int secondaryStrikes;
+        private double tokens;
+        private long lastRefillMillis;
+
+        TokenQuota(int index, String token, int burst, long now) {
+            this.index = index;
+            this.token = token;
+            this.tokens = burst;
+            this.lastRefillMillis = now;
+        }
+
+        long remaining(long now) {
+            return now >= resetAtMillis ? -1 : remaining;
+        }
+
+        /**
+         * Returns the quota left on this token; an unknown quota ranks first so it is learnt.
+         */
+        long headroom() {
+            return remaining < 0 ? Long.MAX_VALUE : remaining;
+        }
+
+        long waitMillis(long now, int burst) {
+            if (remaining >= 0 && now >= resetAtMillis) {
+                // The window has reset; the new quota is learnt from the next response
+                remaining = -1;
+                tokens = burst;
+            }
+            refill(now, burst);
+            long wait = Math.max(0, pausedUntilMillis - now);
+            if (remaining == 0) {
+                wait = Math.max(wait, resetAtMillis - now);
+            } else if (remaining > 0 && tokens < 1) {
+                wait = Math.max(wait, (long) Math.ceil((1 - tokens) / rate(now)));
+            }
+            return wait;
+        }
+
+        void refill(long now, int burst) {
+            if (remaining > 0) {
+                tokens = Math.min(burst, tokens + (now - lastRefillMillis) * rate(now));
+            } else if (remaining < 0) {
+                tokens = burst;
+            }
+            lastRefillMillis = now;
+        }
+
+        /**
+         * Returns the number of calls per millisecond that spreads the remaining quota until the reset.
+         */
+        private double rate(long now) {
+            return (double) Math.max(remaining, 1) / Math.max(resetAtMillis - now, 1000);
+        }
+    }
+}
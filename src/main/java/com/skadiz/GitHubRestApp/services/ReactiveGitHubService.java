@@ -0,0 +1,170 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubTimeoutException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import com.skadiz.GitHubRestApp.util.LinkHeader;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Non-blocking counterpart of {@link GitHubService} and {@link RepositoryAggregationService}, built on
+ * {@link WebClient}. No thread is held while a GitHub call is in flight: listing pages and branch lookups are
+ * composed with bounded {@code flatMap} concurrency, and the repositories keep the order returned by GitHub.
+ */
+@Service
+public class ReactiveGitHubService {
+    private final WebClient webClient;
+    private final String githubApiUrl;
+    private final int pageConcurrency;
+    private final int maxConcurrency;
+    private final long timeoutMillis;
+
+    /**
+     * Constructs a new ReactiveGitHubService.
+     *
+     * @param webClient the WebClient to use for API requests
+     * @param githubApiUrl the base URL for the GitHub API
+     * @param pageConcurrency the maximum number of pages of one listing fetched at the same time
+     * @param maxConcurrency the maximum number of branch lookups in flight for one listing
+     * @param timeoutMillis the deadline in milliseconds for the whole listing
+     */
+    public ReactiveGitHubService(@Qualifier("gitHubWebClient") WebClient webClient,
+                                 @Value("${github.api.url}") String githubApiUrl,
+                                 @Value("${github.pagination.max-concurrency}") int pageConcurrency,
+                                 @Value("${github.fanout.max-concurrency}") int maxConcurrency,
+                                 @Value("${github.fanout.timeout-ms}") long timeoutMillis) {
+        this.webClient = webClient;
+        this.githubApiUrl = githubApiUrl;
+        this.pageConcurrency = pageConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user along with their branches.
+     *
+     * @param username the GitHub username
+     * @return a Mono emitting the repositories with their branches populated, or failing with
+     * {@link UserNotFoundException}, {@link RateLimitExceededException}, {@link GitHubApiException}
+     * or {@link GitHubTimeoutException}
+     */
+    public Mono<List<RepositoryDto>> getRepositoriesWithBranches(String username) {
+        return getUserRepositories(username)
+                .flatMapSequential(repository -> getRepositoryBranches(username, repository.getName())
+                        .collectList()
+                        .map(branches -> {
+                            repository.setBranches(branches);
+                            return repository;
+                        }), maxConcurrency)
+                .collectList()
+                .timeout(Duration.ofMillis(timeoutMillis), Mono.error(() -> new GitHubTimeoutException(
+                        "GitHub API did not respond within " + timeoutMillis + " ms for user " + username)));
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user across all pages.
+     *
+     * @param username the GitHub username
+     * @return a Flux emitting the user's non-fork repositories in order
+     */
+    public Flux<RepositoryDto> getUserRepositories(String username) {
+        String url = githubApiUrl + "/users/" + username + "/repos?per_page=" + GitHubService.PER_PAGE;
+        return fetchPages(url, GitHubPayloadReader::readRepositories, true);
+    }
+
+    /**
+     * Retrieves the branches of a given repository for a specified GitHub user across all pages.
+     *
+     * @param username the GitHub username
+     * @param repositoryName the name of the repository
+     * @return a Flux emitting the repository's branches in order
+     */
+    public Flux<BranchDto> getRepositoryBranches(String username, String repositoryName) {
+        String url = githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches?per_page="
+                + GitHubService.PER_PAGE;
+        return fetchPages(url, GitHubPayloadReader::readBranches, false);
+    }
+
+    /**
+     * Fetches the first page, then the remaining pages concurrently when the {@code Link} header names the last
+     * page, or one after another by their {@code next} links otherwise.
+     */
+    private <T> Flux<T> fetchPages(String firstPageUrl, GitHubPayloadReader.PageReader<T> reader, boolean listing) {
+        return fetchPage(firstPageUrl, reader, listing)
+                .flatMapMany(first -> {
+                    LinkHeader links = LinkHeader.of(first.getHeaders());
+                    OptionalInt lastPage = links.lastPage();
+                    Flux<ResponseEntity<List<T>>> following;
+                    if (lastPage.isPresent()) {
+                        following = Flux.range(2, Math.max(0, lastPage.getAsInt() - 1))
+                                .flatMapSequential(page -> fetchPage(links.pageUrl(page), reader, listing),
+                                        pageConcurrency);
+                    } else if (links.get("next") != null) {
+                        following = fetchPage(links.get("next"), reader, listing)
+                                .expand(response -> {
+                                    String next = LinkHeader.of(response.getHeaders()).get("next");
+                                    return next == null ? Mono.empty() : fetchPage(next, reader, listing);
+                                });
+                    } else {
+                        following = Flux.empty();
+                    }
+                    return Flux.concat(Mono.just(first), following);
+                })
+                .flatMapIterable(response -> response.getBody() == null ? List.of() : response.getBody());
+    }
+
+    /**
+     * Fetches one page and decodes it with the streaming reader once its body has arrived.
+     */
+    private <T> Mono<ResponseEntity<List<T>>> fetchPage(String url, GitHubPayloadReader.PageReader<T> reader,
+                                                         boolean listing) {
+        return webClient.get()
+                .uri(URI.create(url))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .toEntity(byte[].class)
+                .handle((ResponseEntity<byte[]> page, SynchronousSink<ResponseEntity<List<T>>> sink) -> {
+                    byte[] body = page.getBody() == null ? new byte[0] : page.getBody();
+                    try {
+                        sink.next(new ResponseEntity<>(reader.read(new ByteArrayInputStream(body)),
+                                page.getHeaders(), page.getStatusCode()));
+                    } catch (IOException e) {
+                        sink.error(new GitHubApiException("Malformed GitHub API response: " + e.getMessage()));
+                    }
+                })
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    if (listing && e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                        return new UserNotFoundException("User not found");
+                    }
+                    if (GitHubService.isRateLimited(e.getStatusCode(), e.getHeaders())) {
+                        return new RateLimitExceededException("API rate limit exceeded. Please try again later.",
+                                GitHubService.retryAfterSeconds(e.getHeaders()));
+                    }
+                    return new GitHubApiException("GitHub API error: " + e.getStatusCode());
+                })
+                .onErrorMap(WebClientRequestException.class,
+                        e -> new GitHubApiException("Network error: " + e.getMessage()));
+    }
+}
@@ -0,0 +1,498 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubTimeoutException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import com.skadiz.GitHubRestApp.interceptors.CoalescingInterceptor;
+import com.skadiz.GitHubRestApp.util.Hedger;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Service class that assembles a user's repositories together with their branches.
+ * Branch lookups are fanned out concurrently on virtual threads, bounded by a configurable
+ * concurrency cap and an overall deadline for the whole aggregation. Lookups for a page of
+ * repositories start as soon as that page arrives, without waiting for the remaining pages.
+ * When {@code github.api.backend=graphql}, the listing is fetched through {@link GitHubGraphQlService}
+ * instead, falling back to the REST fan-out if the GraphQL call fails.
+ * Given the previous listing of the user, the REST fan-out reuses the branches of every repository whose
+ * {@code pushed_at} and {@code updated_at} did not move since, and only looks up the others.
+ * A {@link RepositoryQuery} selects repositories while the listing pages are read: repositories it leaves out
+ * are never looked up, and no further listing page is awaited once the requested page is complete.
+ * A branch lookup slower than most recent ones is hedged by the {@link Hedger} with a second lookup, sent with
+ * {@link RequestPriority#LOW} priority so that it is shed rather than spending the rate limit reserve.
+ * Aggregations started within {@link #withLookupPermits(Semaphore, Supplier)} share the given branch lookup
+ * slots instead of taking {@code github.fanout.max-concurrency} slots each.
+ * The duration of each completed stage is recorded by the {@code github.aggregation.duration} timer.
+ */
+@Service
+public class RepositoryAggregationService {
+    private static final Logger log = LoggerFactory.getLogger(RepositoryAggregationService.class);
+    private static final ThreadLocal<Semaphore> SHARED_PERMITS = new ThreadLocal<>();
+
+    private final GitHubService gitHubService;
+    private final GitHubGraphQlService gitHubGraphQlService;
+    private final boolean graphQlBackend;
+    private final ExecutorService executor;
+    private final Hedger hedger;
+    private final int maxConcurrency;
+    private final long timeoutMillis;
+    private final Timer listingTimer;
+    private final Timer branchesTimer;
+    private final Timer graphQlTimer;
+    private final Counter fetchedBranches;
+    private final Counter reusedBranches;
+
+    /**
+     * Constructs a new RepositoryAggregationService.
+     *
+     * @param gitHubService the service to interact with GitHub API
+     * @param gitHubGraphQlService the service to interact with GitHub GraphQL API
+     * @param backend the backend used to fetch listings, either "rest" or "graphql"
+     * @param executor the executor running the concurrent GitHub API calls
+     * @param hedger the hedger backing up slow branch lookups
+     * @param maxConcurrency the maximum number of branch lookups in flight for one aggregation
+     * @param timeoutMillis the deadline in milliseconds for the whole aggregation
+     * @param meterRegistry the registry the stage timers are registered with
+     */
+    public RepositoryAggregationService(GitHubService gitHubService,
+                                        GitHubGraphQlService gitHubGraphQlService,
+                                        @Value("${github.api.backend}") String backend,
+                                        @Qualifier("gitHubExecutor") ExecutorService executor,
+                                        Hedger hedger,
+                                        @Value("${github.fanout.max-concurrency}") int maxConcurrency,
+                                        @Value("${github.fanout.timeout-ms}") long timeoutMillis,
+                                        MeterRegistry meterRegistry) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("github.fanout.max-concurrency must be at least 1");
+        }
+        if (!"rest".equals(backend) && !"graphql".equals(backend)) {
+            throw new IllegalArgumentException("github.api.backend must be 'rest' or 'graphql'");
+        }
+        this.gitHubService = gitHubService;
+        this.gitHubGraphQlService = gitHubGraphQlService;
+        this.graphQlBackend = "graphql".equals(backend);
+        this.executor = executor;
+        this.hedger = hedger;
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutMillis = timeoutMillis;
+        this.listingTimer = stageTimer(meterRegistry, "listing");
+        this.branchesTimer = stageTimer(meterRegistry, "branches");
+        this.graphQlTimer = stageTimer(meterRegistry, "graphql");
+        this.fetchedBranches = branchLookupCounter(meterRegistry, "fetched");
+        this.reusedBranches = branchLookupCounter(meterRegistry, "reused");
+    }
+
+    /**
+     * Returns the timer recording one stage of serving a user's repositories, such as fetching the listing,
+     * the branch fan-out or serializing the response.
+     *
+     * @param registry the registry the timer is registered with
+     * @param stage the name of the stage
+     * @return the timer of that stage
+     */
+    public static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("github.aggregation.duration")
+                .description("Time spent in each stage of serving a user's repositories")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Runs the given action with the aggregations it starts on the current thread drawing their branch lookup
+     * slots from the given permits, so that together they stay within one limit. Aggregations the action only
+     * waits for, because another caller started them, keep their own slots.
+     *
+     * @param permits the branch lookup slots shared by the aggregations
+     * @param action the action to run
+     * @param <T> the result type
+     * @return the result of the action
+     */
+    public static <T> T withLookupPermits(Semaphore permits, Supplier<T> action) {
+        Semaphore previous = SHARED_PERMITS.get();
+        SHARED_PERMITS.set(permits);
+        try {
+            return action.get();
+        } finally {
+            SHARED_PERMITS.set(previous);
+        }
+    }
+
+    private static Counter branchLookupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("github.aggregation.branch_lookups")
+                .description("Repositories whose branches were fetched from GitHub or reused from the previous listing")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user along with their branches.
+     * The repositories keep the order returned by GitHub. If any branch lookup fails, the remaining
+     * lookups are cancelled and the failure is rethrown.
+     *
+     * @param username the GitHub username
+     * @return a list of RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the aggregation does not complete before the deadline
+     */
+    public List<RepositoryDto> getRepositoriesWithBranches(String username) {
+        return getRepositoriesWithBranches(username, null);
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user along with their branches, reusing the
+     * branches of the repositories that did not change since a previous listing.
+     *
+     * @param username the GitHub username
+     * @param previous the previous listing of the user, or {@code null} to look up every repository
+     * @return a list of RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the aggregation does not complete before the deadline
+     */
+    public List<RepositoryDto> getRepositoriesWithBranches(String username, List<RepositoryDto> previous) {
+        return getRepositoriesWithBranches(username, previous, RepositoryQuery.ALL);
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user selected by a query along with their branches,
+     * reusing the branches of the repositories that did not change since a previous listing.
+     *
+     * @param username the GitHub username
+     * @param previous the previous listing of the user, or {@code null} to look up every repository
+     * @param query the query selecting the repositories; branches are only looked up if it writes them
+     * @return a list of the selected RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the aggregation does not complete before the deadline
+     */
+    public List<RepositoryDto> getRepositoriesWithBranches(String username, List<RepositoryDto> previous,
+                                                           RepositoryQuery query) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<RepositoryDto> listing = fetchGraphQl(username, deadline);
+        if (listing != null) {
+            return query.select(listing);
+        }
+        Deque<CompletableFuture<List<RepositoryDto>>> pages = new ArrayDeque<>(await(
+                executor.submit(() -> gitHubService.getUserRepositoryPages(username)), username, deadline));
+        List<RepositoryDto> repositories = new ArrayList<>();
+        fetchBranches(username, pages, unchanged(previous), query, lookupPermits(), started, deadline,
+                repositories::add, repository -> { });
+        return repositories;
+    }
+
+    /**
+     * Streams the non-fork repositories of a given GitHub user along with their branches.
+     * The first listing page is fetched before this method returns, so an unknown user is reported here;
+     * the returned stream then hands out each repository as soon as its branches arrive, in completion order,
+     * without holding the whole listing in memory.
+     *
+     * @param username the GitHub username
+     * @return a stream of RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the first listing page does not arrive before the deadline
+     */
+    public RepositoryStream streamRepositoriesWithBranches(String username) {
+        return streamRepositoriesWithBranches(username, null);
+    }
+
+    /**
+     * Streams the non-fork repositories of a given GitHub user along with their branches, reusing the
+     * branches of the repositories that did not change since a previous listing.
+     *
+     * @param username the GitHub username
+     * @param previous the previous listing of the user, or {@code null} to look up every repository
+     * @return a stream of RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the first listing page does not arrive before the deadline
+     */
+    public RepositoryStream streamRepositoriesWithBranches(String username, List<RepositoryDto> previous) {
+        return streamRepositoriesWithBranches(username, previous, RepositoryQuery.ALL);
+    }
+
+    /**
+     * Streams the non-fork repositories of a given GitHub user selected by a query along with their branches,
+     * reusing the branches of the repositories that did not change since a previous listing.
+     *
+     * @param username the GitHub username
+     * @param previous the previous listing of the user, or {@code null} to look up every repository
+     * @param query the query selecting the repositories; branches are only looked up if it writes them
+     * @return a stream of the selected RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the first listing page does not arrive before the deadline
+     */
+    public RepositoryStream streamRepositoriesWithBranches(String username, List<RepositoryDto> previous,
+                                                           RepositoryQuery query) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<RepositoryDto> listing = fetchGraphQl(username, deadline);
+        if (listing != null) {
+            return query.select(listing)::forEach;
+        }
+        // Only the pages not handed out yet are kept, so the stream never holds the whole listing
+        Deque<CompletableFuture<List<RepositoryDto>>> pages = new ArrayDeque<>(await(
+                executor.submit(() -> gitHubService.getUserRepositoryPages(username)), username, deadline));
+        Semaphore permits = lookupPermits();
+        return consumer -> fetchBranches(username, pages, unchanged(previous), query, permits, started, deadline,
+                repository -> { }, consumer);
+    }
+
+    /**
+     * Fetches the listing through GraphQL when that backend is configured. A rate-limited query is not retried
+     * over REST: the secondary limits are shared, so the fallback would only spend REST quota on calls GitHub
+     * is about to refuse as well.
+     *
+     * @return the listing, or {@code null} if the REST fan-out has to be used
+     * @throws RateLimitExceededException if GitHub rate-limited the GraphQL query
+     */
+    private List<RepositoryDto> fetchGraphQl(String username, long deadline) {
+        if (!graphQlBackend) {
+            return null;
+        }
+        try {
+            long started = System.nanoTime();
+            List<RepositoryDto> listing = await(executor.submit(
+                    () -> gitHubGraphQlService.getRepositoriesWithBranches(username)), username, deadline);
+            graphQlTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return listing;
+        } catch (GitHubApiException e) {
+            log.warn("GraphQL listing for user {} failed, falling back to REST: {}", username, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the branch lookup slots shared by the current thread, or new ones for a single aggregation.
+     */
+    private Semaphore lookupPermits() {
+        Semaphore shared = SHARED_PERMITS.get();
+        return shared != null ? shared : new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Indexes the repositories of a previous listing by name, for reuse of their branches.
+     */
+    private static Map<String, RepositoryDto> unchanged(List<RepositoryDto> previous) {
+        if (previous == null) {
+            return Map.of();
+        }
+        Map<String, RepositoryDto> byName = new HashMap<>();
+        previous.forEach(repository -> byName.put(repository.getName(), repository));
+        return byName;
+    }
+
+    /**
+     * Tells whether a repository was neither pushed to nor updated since its previous listing. A repository
+     * without timestamps is always considered changed.
+     */
+    private static boolean isUnchanged(RepositoryDto repository, RepositoryDto previous) {
+        return previous != null && repository.getPushedAt() != null && repository.getUpdatedAt() != null
+                && repository.getPushedAt().equals(previous.getPushedAt())
+                && repository.getUpdatedAt().equals(previous.getUpdatedAt());
+    }
+
+    /**
+     * Starts the branch lookups of each listing page as soon as that page arrives, while the following
+     * pages are still in flight, and then waits for all lookups to complete. Each repository is passed to
+     * {@code onSubmitted} in listing order when its lookup starts, and to {@code onCompleted} on the calling
+     * thread once its branches are populated. A repository unchanged since its entry in {@code previous}
+     * takes the branches of that entry without a lookup. Only the repositories on the page selected by
+     * {@code query} are passed on, and their branches are looked up only if the query writes them; once that
+     * page is complete, the remaining listing pages are not awaited but cancelled. The listing stage is timed
+     * from {@code started} until its last awaited page arrives, and the branches stage from the first lookup
+     * until the last one completes.
+     * <p>
+     * Memory stays bounded by the fan-out rather than the size of the account: pages are taken off
+     * {@code pages} as they are read and repositories off their page as they are passed on, so nothing is
+     * referenced here once handed out, and a lookup is only submitted once one of the {@code permits} is free,
+     * handing out completed lookups while waiting for one. When the permits are shared with other aggregations
+     * and none of this one's lookups is in flight, it waits for another aggregation to release one.
+     */
+    private void fetchBranches(String username, Deque<CompletableFuture<List<RepositoryDto>>> pages,
+                               Map<String, RepositoryDto> previous, RepositoryQuery query, Semaphore permits,
+                               long started, long deadline, Consumer<RepositoryDto> onSubmitted,
+                               Consumer<RepositoryDto> onCompleted) {
+        CompletionService<RepositoryDto> completionService = new ExecutorCompletionService<>(executor);
+        Set<Future<RepositoryDto>> inFlight = new HashSet<>();
+        // Permits taken and not released yet, given back when lookups are cancelled before they run
+        AtomicInteger held = new AtomicInteger();
+        // The first listing page has already arrived, so lookups start right away
+        long lookupsStarted = System.nanoTime();
+        long offset = query.offset();
+        long end = offset + query.size();
+        long matched = 0;
+        try {
+            listing:
+            while (!pages.isEmpty() && matched < end) {
+                Deque<RepositoryDto> page = new ArrayDeque<>(await(pages.poll(), username, deadline));
+                for (RepositoryDto repository = page.poll(); repository != null; repository = page.poll()) {
+                    if (!query.matches(repository)) {
+                        continue;
+                    }
+                    long position = matched++;
+                    if (position < offset) {
+                        continue;
+                    }
+                    if (position >= end) {
+                        break listing;
+                    }
+                    onSubmitted.accept(repository);
+                    if (!query.includesBranches()) {
+                        onCompleted.accept(repository);
+                        continue;
+                    }
+                    RepositoryDto cached = previous.get(repository.getName());
+                    if (isUnchanged(repository, cached)) {
+                        repository.setBranches(cached.getBranches());
+                        reusedBranches.increment();
+                        onCompleted.accept(repository);
+                        continue;
+                    }
+                    while (!permits.tryAcquire()) {
+                        if (inFlight.isEmpty()) {
+                            if (!permits.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                                throw timeout(username);
+                            }
+                            break;
+                        }
+                        handOutNext(completionService, inFlight, username, deadline, onCompleted);
+                    }
+                    held.incrementAndGet();
+                    fetchedBranches.increment();
+                    RepositoryDto submitted = repository;
+                    inFlight.add(completionService.submit(() -> {
+                        try {
+                            submitted.setBranches(getBranches(username, submitted.getName()));
+                            return submitted;
+                        } finally {
+                            release(permits, held);
+                        }
+                    }));
+                }
+                // Hand out what already completed before waiting for the next page
+                for (Future<RepositoryDto> completed = completionService.poll(); completed != null;
+                     completed = completionService.poll()) {
+                    inFlight.remove(completed);
+                    onCompleted.accept(completed.get());
+                }
+            }
+            listingTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            while (!inFlight.isEmpty()) {
+                handOutNext(completionService, inFlight, username, deadline, onCompleted);
+            }
+            branchesTimer.record(System.nanoTime() - lookupsStarted, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            throw interrupted();
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            permits.release(held.getAndSet(0));
+            pages.forEach(page -> page.cancel(true));
+            pages.clear();
+        }
+    }
+
+    private static void release(Semaphore permits, AtomicInteger held) {
+        if (held.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Waits for the next branch lookup to complete and hands its repository out.
+     */
+    private void handOutNext(CompletionService<RepositoryDto> completionService, Set<Future<RepositoryDto>> inFlight,
+                             String username, long deadline, Consumer<RepositoryDto> onCompleted)
+            throws InterruptedException, ExecutionException {
+        Future<RepositoryDto> completed = completionService.poll(remaining(deadline), TimeUnit.NANOSECONDS);
+        if (completed == null) {
+            throw timeout(username);
+        }
+        inFlight.remove(completed);
+        onCompleted.accept(completed.get());
+    }
+
+    private List<BranchDto> getBranches(String username, String repositoryName) {
+        // The hedge must not be coalesced with the slow lookup it backs up
+        return hedger.call(() -> gitHubService.getRepositoryBranches(username, repositoryName),
+                () -> RequestPriority.LOW.call(() -> CoalescingInterceptor.uncoalesced(
+                        () -> gitHubService.getRepositoryBranches(username, repositoryName))));
+    }
+
+    private <T> T await(Future<T> future, String username, long deadline) {
+        try {
+            return future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw timeout(username);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw interrupted();
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private GitHubTimeoutException timeout(String username) {
+        return new GitHubTimeoutException("GitHub API did not respond within " + timeoutMillis
+                + " ms for user " + username);
+    }
+
+    private static GitHubApiException interrupted() {
+        Thread.currentThread().interrupt();
+        return new GitHubApiException("Interrupted while waiting for GitHub API");
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new GitHubApiException("GitHub API error: " + cause.getMessage());
+    }
+}
@@ -0,0 +1,284 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.skadiz.GitHubRestApp.cache.EncodedListing;
+import com.skadiz.GitHubRestApp.cache.StaleWhileRevalidateCache;
+import com.skadiz.GitHubRestApp.cache.TopKTracker;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubTimeoutException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.function.LongPredicate;
+
+/**
+ * Service class caching the assembled repository listing of each user in front of the
+ * {@link RepositoryAggregationService}. Expired listings are served immediately while one background
+ * refresh runs, and concurrent misses for the same user share a single aggregation. A refresh reuses the
+ * branches of the repositories that were not pushed to since the previous listing.
+ * Each listing is cached together with its encoded JSON response, so a hit is served without serializing again.
+ * A {@link RepositoryQuery} is answered from the cached listing when one is held, and otherwise by an aggregation
+ * restricted to the selected repositories, whose result is not cached.
+ * The most requested usernames are tracked so their listings can be refreshed ahead of expiry.
+ */
+@Service
+public class RepositoryCacheService implements MeterBinder {
+    private final RepositoryAggregationService aggregationService;
+    private final ListingEncoder listingEncoder;
+    private final StaleWhileRevalidateCache<String, EncodedListing> cache;
+    private final TopKTracker<String> hotUsernames;
+    private final long ttlMillis;
+    private final Clock clock = Clock.systemUTC();
+
+    /**
+     * Constructs a new RepositoryCacheService.
+     *
+     * @param aggregationService the service assembling repositories together with their branches
+     * @param listingEncoder the encoder of the responses cached with the listings
+     * @param executor the executor running background refreshes
+     * @param enabled whether listings are cached
+     * @param maxEntries the maximum number of users whose listings are kept
+     * @param ttlMillis how long in milliseconds a listing is served without a refresh
+     * @param staleMillis how long in milliseconds after the TTL a listing is still served while it is refreshed
+     * @param trackedUsernames the number of usernames whose request counts are tracked
+     */
+    public RepositoryCacheService(RepositoryAggregationService aggregationService, ListingEncoder listingEncoder,
+                                  @Qualifier("gitHubExecutor") ExecutorService executor,
+                                  @Value("${github.listing-cache.enabled}") boolean enabled,
+                                  @Value("${github.listing-cache.max-entries}") int maxEntries,
+                                  @Value("${github.listing-cache.ttl-ms}") long ttlMillis,
+                                  @Value("${github.listing-cache.stale-ms}") long staleMillis,
+                                  @Value("${github.listing-cache.tracked-usernames}") int trackedUsernames) {
+        this.aggregationService = aggregationService;
+        this.listingEncoder = listingEncoder;
+        this.hotUsernames = new TopKTracker<>(trackedUsernames);
+        this.ttlMillis = ttlMillis;
+        this.cache = enabled
+                ? new StaleWhileRevalidateCache<String, EncodedListing>(
+                        (key, previous) -> listingEncoder.encode(aggregationService.getRepositoriesWithBranches(key,
+                                previous == null ? null : previous.repositories()), previous),
+                        executor, maxEntries, ttlMillis, staleMillis, clock)
+                : null;
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user along with their branches,
+     * served from the cache when possible.
+     *
+     * @param username the GitHub username
+     * @return a list of RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the aggregation does not complete before the deadline
+     */
+    public List<RepositoryDto> getRepositoriesWithBranches(String username) {
+        if (cache == null) {
+            return aggregationService.getRepositoriesWithBranches(username);
+        }
+        return getEncodedRepositories(username).repositories();
+    }
+
+    /**
+     * Returns the cached listing of a user however old it is, without refreshing it or counting a request.
+     *
+     * @param username the GitHub username
+     * @return the cached repositories with their branches, or {@code null} if none are cached
+     */
+    public List<RepositoryDto> peekRepositoriesWithBranches(String username) {
+        if (cache == null) {
+            return null;
+        }
+        EncodedListing cached = cache.peek(username.toLowerCase(Locale.ROOT));
+        return cached != null ? cached.repositories() : null;
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user selected by a query along with their branches,
+     * selected from the cached listing when one is held.
+     *
+     * @param username the GitHub username
+     * @param query the query selecting the repositories
+     * @return a list of the selected RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the aggregation does not complete before the deadline
+     */
+    public List<RepositoryDto> getRepositoriesWithBranches(String username, RepositoryQuery query) {
+        if (query.isAll()) {
+            return getRepositoriesWithBranches(username);
+        }
+        if (cache == null) {
+            return aggregationService.getRepositoriesWithBranches(username, null, query);
+        }
+        String key = username.toLowerCase(Locale.ROOT);
+        hotUsernames.record(key);
+        EncodedListing cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return query.select(cached.repositories());
+        }
+        EncodedListing expired = cache.peek(key);
+        return aggregationService.getRepositoriesWithBranches(username,
+                expired == null ? null : expired.repositories(), query);
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user along with their branches and their encoded
+     * JSON response, served from the cache when possible.
+     *
+     * @param username the GitHub username
+     * @return the listing with its encoded response
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the aggregation does not complete before the deadline
+     */
+    public EncodedListing getEncodedRepositories(String username) {
+        if (cache == null) {
+            return listingEncoder.encode(aggregationService.getRepositoriesWithBranches(username));
+        }
+        // GitHub logins are case-insensitive
+        String key = username.toLowerCase(Locale.ROOT);
+        hotUsernames.record(key);
+        return cache.get(key);
+    }
+
+    /**
+     * Returns how much longer a listing served by {@link #getEncodedRepositories} stays fresh, i.e. how long
+     * clients and shared caches may reuse it without asking again.
+     *
+     * @param listing the served listing
+     * @return the remaining time to live, zero if listings are not cached or this one is already being refreshed
+     */
+    public Duration remainingTimeToLive(EncodedListing listing) {
+        if (cache == null) {
+            return Duration.ZERO;
+        }
+        long age = Duration.between(listing.assembledAt(), clock.instant()).toMillis();
+        return Duration.ofMillis(Math.max(0, ttlMillis - age));
+    }
+
+    /**
+     * Streams the non-fork repositories of a given GitHub user along with their branches.
+     * A cached listing is streamed as is; otherwise the repositories are streamed as they are assembled,
+     * and the listing is not cached.
+     *
+     * @param username the GitHub username
+     * @return a stream of RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the first listing page does not arrive before the deadline
+     */
+    public RepositoryStream streamRepositoriesWithBranches(String username) {
+        return streamRepositoriesWithBranches(username, RepositoryQuery.ALL);
+    }
+
+    /**
+     * Streams the non-fork repositories of a given GitHub user selected by a query along with their branches.
+     * They are selected from the cached listing when one is held; otherwise the selected repositories are
+     * streamed as they are assembled, and nothing is cached.
+     *
+     * @param username the GitHub username
+     * @param query the query selecting the repositories
+     * @return a stream of the selected RepositoryDto objects with their branches populated
+     * @throws UserNotFoundException if the user is not found
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the first listing page does not arrive before the deadline
+     */
+    public RepositoryStream streamRepositoriesWithBranches(String username, RepositoryQuery query) {
+        if (cache == null) {
+            return aggregationService.streamRepositoriesWithBranches(username, null, query);
+        }
+        String key = username.toLowerCase(Locale.ROOT);
+        hotUsernames.record(key);
+        EncodedListing cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return query.select(cached.repositories())::forEach;
+        }
+        // An entry past the stale window is not served, but its unchanged branches still are
+        EncodedListing expired = cache.peek(key);
+        return aggregationService.streamRepositoriesWithBranches(username,
+                expired == null ? null : expired.repositories(), query);
+    }
+
+    /**
+     * Returns the usernames requested most often lately, most requested first, and halves their counts so that
+     * users who stop being requested drop out over time.
+     *
+     * @param count the maximum number of usernames returned
+     * @return the hot usernames, or an empty list if listings are not cached
+     */
+    public List<String> pollHotUsernames(int count) {
+        if (cache == null) {
+            return List.of();
+        }
+        List<String> hot = hotUsernames.top(count);
+        hotUsernames.decay();
+        return hot;
+    }
+
+    /**
+     * Refreshes the cached listing of a user on the calling thread if it is missing or expires within the
+     * given margin, provided the expected number of GitHub calls can be afforded.
+     *
+     * @param username the GitHub username
+     * @param marginMillis how long in milliseconds before its expiry a listing is refreshed
+     * @param canAfford tells whether the given number of GitHub calls may be spent
+     * @return true if the listing was refreshed
+     * @throws UserNotFoundException if the user is not found
+     * @throws RateLimitExceededException if the refresh calls are shed
+     * @throws GitHubApiException if there is an error with the GitHub API or network issues
+     * @throws GitHubTimeoutException if the aggregation does not complete before the deadline
+     */
+    public boolean refreshIfExpiring(String username, long marginMillis, LongPredicate canAfford) {
+        if (cache == null) {
+            return false;
+        }
+        String key = username.toLowerCase(Locale.ROOT);
+        long age = cache.ageOf(key);
+        if (age >= 0 && age < ttlMillis - marginMillis) {
+            return false;
+        }
+        // One call per repository for its branches, plus the listing pages
+        EncodedListing cached = cache.peek(key);
+        int repositories = cached != null ? cached.repositories().size() : 0;
+        long calls = cached != null ? repositories + 1 + repositories / GitHubService.PER_PAGE
+                : GitHubService.PER_PAGE + 1;
+        if (!canAfford.test(calls)) {
+            return false;
+        }
+        cache.refresh(key);
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache == null) {
+            return;
+        }
+        FunctionCounter.builder("github.listing.cache.requests", cache, StaleWhileRevalidateCache::getHitCount)
+                .tag("result", "hit")
+                .description("Repository listing requests by cache result")
+                .register(registry);
+        FunctionCounter.builder("github.listing.cache.requests", cache, StaleWhileRevalidateCache::getStaleHitCount)
+                .tag("result", "stale")
+                .description("Repository listing requests by cache result")
+                .register(registry);
+        FunctionCounter.builder("github.listing.cache.requests", cache, StaleWhileRevalidateCache::getMissCount)
+                .tag("result", "miss")
+                .description("Repository listing requests by cache result")
+                .register(registry);
+        Gauge.builder("github.listing.cache.entries", cache, StaleWhileRevalidateCache::size)
+                .register(registry);
+    }
+}
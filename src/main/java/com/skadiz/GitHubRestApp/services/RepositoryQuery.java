@@ -0,0 +1,232 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.InvalidRequestException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Selection of a user's repositories asked for by a client: the repositories whose names match, one page of
+ * them, the branches whose names match and the fields written for each repository. Repositories are selected
+ * while the listing is read, before their branches are looked up, so the ones left out never cost a GitHub call;
+ * without the {@code branches} field no branch is looked up at all.
+ *
+ * @param names the glob patterns of the selected repository names, matched case-insensitively; empty for all
+ * @param branches the glob patterns of the written branch names; empty for all
+ * @param fields the repository fields written, out of name, owner, branches and fork
+ * @param page the 1-based page of selected repositories
+ * @param size the number of repositories per page, {@link Integer#MAX_VALUE} for one page holding all
+ */
+public record RepositoryQuery(List<Pattern> names, List<Pattern> branches, Set<String> fields, int page, int size) {
+    /**
+     * Number of repositories per page when a page is asked for without a size, as on GitHub.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 30;
+    /**
+     * Largest number of repositories per page, as on GitHub.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Set<String> ALL_FIELDS = Set.of("name", "owner", "branches", "fork");
+    private static final List<String> FIELD_ORDER = List.of("name", "owner", "branches", "fork");
+
+    /**
+     * Every repository with every branch and field, as served without query parameters.
+     */
+    public static final RepositoryQuery ALL = new RepositoryQuery(List.of(), List.of(), ALL_FIELDS, 1,
+            Integer.MAX_VALUE);
+
+    /**
+     * Parses the query parameters of a repositories request.
+     *
+     * @param names the repository name patterns, each possibly a comma-separated list, or null
+     * @param branches the branch name patterns, each possibly a comma-separated list, or null
+     * @param fields the comma-separated repository fields, or null for all
+     * @param page the 1-based page, or null for the first
+     * @param size the page size, or null for {@value #DEFAULT_PAGE_SIZE} if a page is given and all repositories
+     *             otherwise
+     * @return the query
+     * @throws InvalidRequestException if a field is unknown or the page or size is out of range
+     */
+    public static RepositoryQuery of(List<String> names, List<String> branches, String fields, Integer page,
+                                     Integer size) {
+        if (page != null && page < 1) {
+            throw new InvalidRequestException("page must be at least 1");
+        }
+        if (size != null && (size < 1 || size > MAX_PAGE_SIZE)) {
+            throw new InvalidRequestException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return new RepositoryQuery(patterns(names, Pattern.CASE_INSENSITIVE), patterns(branches, 0),
+                fields(fields), page != null ? page : 1,
+                size != null ? size : page != null ? DEFAULT_PAGE_SIZE : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Tells whether the query selects every repository with every branch and field.
+     *
+     * @return true if the query changes nothing
+     */
+    public boolean isAll() {
+        return names.isEmpty() && branches.isEmpty() && fields.size() == ALL_FIELDS.size() && page == 1
+                && size == Integer.MAX_VALUE;
+    }
+
+    /**
+     * Tells whether branches are written, i.e. whether they have to be looked up.
+     *
+     * @return true if the {@code branches} field is selected
+     */
+    public boolean includesBranches() {
+        return fields.contains("branches");
+    }
+
+    /**
+     * Tells whether the name of a repository matches the query.
+     *
+     * @param repository the repository
+     * @return true if the repository is selected, before pagination
+     */
+    public boolean matches(RepositoryDto repository) {
+        return matches(names, repository.getName());
+    }
+
+    /**
+     * Returns how many matching repositories precede the requested page.
+     *
+     * @return the offset of the page
+     */
+    public long offset() {
+        return (long) (page - 1) * size;
+    }
+
+    /**
+     * Applies the name filter and pagination to a listing that was assembled in full.
+     *
+     * @param repositories the repositories in listing order
+     * @return the repositories of the requested page
+     */
+    public List<RepositoryDto> select(List<RepositoryDto> repositories) {
+        if (isAll()) {
+            return repositories;
+        }
+        return repositories.stream()
+                .filter(this::matches)
+                .skip(offset())
+                .limit(size)
+                .toList();
+    }
+
+    /**
+     * Writes the selected fields of a repository with its matching branches.
+     *
+     * @param generator the generator to write to
+     * @param repository the repository
+     * @throws IOException if writing fails
+     */
+    public void write(JsonGenerator generator, RepositoryDto repository) throws IOException {
+        if (isAll()) {
+            generator.writeObject(repository);
+            return;
+        }
+        generator.writeStartObject();
+        for (String field : FIELD_ORDER) {
+            if (!fields.contains(field)) {
+                continue;
+            }
+            switch (field) {
+                case "name" -> generator.writeStringField("name", repository.getName());
+                case "owner" -> generator.writeObjectField("owner", repository.getOwner());
+                case "branches" -> {
+                    generator.writeArrayFieldStart("branches");
+                    for (BranchDto branch : repository.getBranches()) {
+                        if (matches(branches, branch.getName())) {
+                            generator.writeObject(branch);
+                        }
+                    }
+                    generator.writeEndArray();
+                }
+                default -> generator.writeBooleanField("fork", repository.isFork());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static boolean matches(List<Pattern> patterns, String name) {
+        if (patterns.isEmpty()) {
+            return true;
+        }
+        if (name == null) {
+            return false;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compiles glob patterns where {@code *} stands for any run of characters and {@code ?} for one character.
+     */
+    private static List<Pattern> patterns(List<String> values, int flags) {
+        if (values == null) {
+            return List.of();
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        for (String value : values) {
+            for (String glob : value.split(",")) {
+                if (glob.isBlank()) {
+                    continue;
+                }
+                StringBuilder regex = new StringBuilder();
+                StringBuilder literal = new StringBuilder();
+                for (char c : glob.trim().toCharArray()) {
+                    if (c == '*' || c == '?') {
+                        if (!literal.isEmpty()) {
+                            regex.append(Pattern.quote(literal.toString()));
+                            literal.setLength(0);
+                        }
+                        regex.append(c == '*' ? ".*" : ".");
+                    } else {
+                        literal.append(c);
+                    }
+                }
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                }
+                patterns.add(Pattern.compile(regex.toString(), flags));
+            }
+        }
+        return List.copyOf(patterns);
+    }
+
+    private static Set<String> fields(String value) {
+        if (value == null) {
+            return ALL_FIELDS;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : value.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ALL_FIELDS.contains(name)) {
+                throw new InvalidRequestException("Unknown field '" + name + "', expected any of "
+                        + String.join(", ", FIELD_ORDER));
+            }
+            fields.add(name);
+        }
+        if (fields.isEmpty()) {
+            throw new InvalidRequestException("fields must name at least one of " + String.join(", ", FIELD_ORDER));
+        }
+        return Set.copyOf(fields);
+    }
+}
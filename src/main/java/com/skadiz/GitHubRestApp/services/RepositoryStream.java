@@ -0,0 +1,23 @@
+package com.skadiz.GitHubRestApp.services;
+
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+
+import java.util.function.Consumer;
+
+/**
+ * Repositories of one user that are handed out one at a time as soon as their branches are known,
+ * instead of being collected into a list first.
+ */
+@FunctionalInterface
+public interface RepositoryStream {
+
+    /**
+     * Hands every repository to the given consumer, on the calling thread, and returns once all were handed out.
+     *
+     * @param consumer the consumer receiving each repository with its branches populated
+     * @throws com.skadiz.GitHubRestApp.exceptions.GitHubApiException if there is an error with the GitHub API
+     * @throws com.skadiz.GitHubRestApp.exceptions.GitHubTimeoutException if the repositories are not complete
+     * before the deadline
+     */
+    void forEach(Consumer<RepositoryDto> consumer);
+}
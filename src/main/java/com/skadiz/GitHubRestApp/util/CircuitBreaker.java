@@ -0,0 +1,162 @@
+package com.skadiz.GitHubRestApp.util;
+
+import java.time.Clock;
+
+/**
+ * Count-based circuit breaker guarding calls to one upstream endpoint.
+ * <ul>
+ *     <li>While closed, the outcome of the last {@code windowSize} calls is kept; once at least
+ *     {@code minimumCalls} were made and the share of failures reaches the threshold, the breaker opens.</li>
+ *     <li>While open, calls are refused until {@code openMillis} have passed.</li>
+ *     <li>The breaker then lets a single probe call through: its success closes the breaker with an empty
+ *     window, its failure opens it again.</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+
+    /**
+     * State of a circuit breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openMillis;
+    private final Clock clock;
+    private final boolean[] failures;
+    private State state = State.CLOSED;
+    private int calls;
+    private int failureCount;
+    private int next;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    /**
+     * Constructs a new CircuitBreaker.
+     *
+     * @param failureRateThreshold the percentage of failed calls in the window that opens the breaker
+     * @param windowSize the number of most recent calls whose outcome is kept
+     * @param minimumCalls the number of calls needed in the window before the breaker may open
+     * @param openMillis how long in milliseconds the breaker refuses calls once open
+     * @param clock the clock timing the open state
+     */
+    public CircuitBreaker(int failureRateThreshold, int windowSize, int minimumCalls, long openMillis, Clock clock) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimum calls must be between 1 and the window size");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = minimumCalls;
+        this.openMillis = openMillis;
+        this.clock = clock;
+        this.failures = new boolean[windowSize];
+    }
+
+    /**
+     * Asks for permission to make a call. A permitted call must be followed by {@link #onSuccess()},
+     * {@link #onFailure()} or {@link #onIgnored()}.
+     *
+     * @return true if the call may be made, false if it must fail fast
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Records a permitted call that reached the upstream and got a usable answer.
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * Records a permitted call that failed because of the upstream.
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && calls >= minimumCalls && failureCount * 100 >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    /**
+     * Records a permitted call whose outcome says nothing about the upstream, such as a call cancelled by its
+     * caller. A probe call ending this way lets the next call probe instead.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Returns how long an open breaker keeps refusing calls before it lets a probe through.
+     *
+     * @return the remaining time in milliseconds, zero if the breaker is not open
+     */
+    public synchronized long getRemainingOpenMillis() {
+        return state == State.OPEN ? Math.max(0, openMillis - (clock.millis() - openedAt)) : 0;
+    }
+
+    /**
+     * Returns the current state, without moving an expired open breaker to half-open.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (calls == failures.length) {
+            if (failures[next]) {
+                failureCount--;
+            }
+        } else {
+            calls++;
+        }
+        failures[next] = failed;
+        if (failed) {
+            failureCount++;
+        }
+        next = (next + 1) % failures.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = clock.millis();
+    }
+
+    private void reset(State state) {
+        this.state = state;
+        calls = 0;
+        failureCount = 0;
+        next = 0;
+        probeInFlight = false;
+    }
+}
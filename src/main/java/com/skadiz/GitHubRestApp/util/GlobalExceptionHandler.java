@@ -1,9 +1,15 @@
 package com.skadiz.GitHubRestApp.util;
 
 import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubTimeoutException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubUnavailableException;
+import com.skadiz.GitHubRestApp.exceptions.InvalidRequestException;
 import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.exceptions.SubscriptionLimitException;
 import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,6 +19,7 @@ import java.util.Map;
 
 /**
  * Global exception handler for handling exceptions across the whole application.
+ * Error bodies are always written as JSON, also for clients that asked for a streamed NDJSON response.
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -26,9 +33,23 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<?> handleUserNotFoundException(UserNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(Map.of("status", HttpStatus.NOT_FOUND.value(), "message", ex.getMessage()));
     }
 
+    /**
+     * Handles InvalidRequestException by returning a 400 response with the error message.
+     *
+     * @param ex the InvalidRequestException instance
+     * @return a ResponseEntity containing the status and error message
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<?> handleInvalidRequestException(InvalidRequestException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("status", HttpStatus.BAD_REQUEST.value(), "message", ex.getMessage()));
+    }
+
     /**
      * Handles GitHubApiException by returning a 500 response with the error message.
      *
@@ -38,18 +59,66 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(GitHubApiException.class)
     public ResponseEntity<?> handleGitHubApiException(GitHubApiException ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(Map.of("status", HttpStatus.INTERNAL_SERVER_ERROR.value(), "message", ex.getMessage()));
     }
 
     /**
-     * Handles RateLimitExceededException by returning a 403 response with the error message.
+     * Handles GitHubUnavailableException by returning a 503 response with the error message and a Retry-After
+     * header, so clients back off while GitHub calls are refused instead of reporting an internal error.
+     *
+     * @param ex the GitHubUnavailableException instance
+     * @return a ResponseEntity containing the status and error message
+     */
+    @ExceptionHandler(GitHubUnavailableException.class)
+    public ResponseEntity<?> handleGitHubUnavailableException(GitHubUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("status", HttpStatus.SERVICE_UNAVAILABLE.value(), "message", ex.getMessage()));
+    }
+
+    /**
+     * Handles GitHubTimeoutException by returning a 504 response with the error message.
+     *
+     * @param ex the GitHubTimeoutException instance
+     * @return a ResponseEntity containing the status and error message
+     */
+    @ExceptionHandler(GitHubTimeoutException.class)
+    public ResponseEntity<?> handleGitHubTimeoutException(GitHubTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("status", HttpStatus.GATEWAY_TIMEOUT.value(), "message", ex.getMessage()));
+    }
+
+    /**
+     * Handles SubscriptionLimitException by returning a 503 response with the error message.
+     *
+     * @param ex the SubscriptionLimitException instance
+     * @return a ResponseEntity containing the status and error message
+     */
+    @ExceptionHandler(SubscriptionLimitException.class)
+    public ResponseEntity<?> handleSubscriptionLimitException(SubscriptionLimitException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("status", HttpStatus.SERVICE_UNAVAILABLE.value(), "message", ex.getMessage()));
+    }
+
+    /**
+     * Handles RateLimitExceededException by returning a 403 response with the error message,
+     * and a Retry-After header when the retry delay is known.
      *
      * @param ex the RateLimitExceededException instance
      * @return a ResponseEntity containing the status and error message
      */
     @ExceptionHandler(RateLimitExceededException.class)
     public ResponseEntity<?> handleRateLimitExceededException(RateLimitExceededException ex) {
-        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.FORBIDDEN);
+        if (ex.getRetryAfterSeconds() >= 0) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        }
+        return response
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(Map.of("status", HttpStatus.FORBIDDEN.value(), "message", ex.getMessage()));
     }
 
@@ -63,9 +132,11 @@ public class GlobalExceptionHandler {
     public ResponseEntity<?> handleHttpClientErrorException(HttpClientErrorException ex) {
         if (ex.getStatusCode() == HttpStatus.FORBIDDEN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .contentType(MediaType.APPLICATION_JSON)
                     .body(Map.of("status", HttpStatus.FORBIDDEN.value(), "message", "API rate limit exceeded. Please try again later."));
         }
         return ResponseEntity.status(ex.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(Map.of("status", ex.getStatusCode().value(), "message", ex.getResponseBodyAsString()));
     }
 
@@ -78,6 +149,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGenericException(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(Map.of("status", HttpStatus.INTERNAL_SERVER_ERROR.value(), "message", "An unexpected error occurred"));
     }
 }
@@ -0,0 +1,218 @@
+package com.skadiz.GitHubRestApp.util;
+
+import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls with a hedge: when a call has not completed after the configured percentile of the latencies of
+ * recent calls, a second, equivalent call is started and whichever succeeds first is returned, the other one
+ * being cancelled. Until enough latencies were recorded, calls run without a hedge.
+ * A failing hedge is ignored; the call fails only once every attempt failed, with the error of the first one.
+ */
+@Component
+public class Hedger implements MeterBinder {
+    private static final int WINDOW = 256;
+    private static final int UPDATE_INTERVAL = 16;
+
+    private final ExecutorService executor;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final long[] latencies = new long[WINDOW];
+    private int samples;
+    private int next;
+    private int sinceUpdate;
+    private volatile long delayNanos = -1;
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * Constructs a new Hedger.
+     *
+     * @param executor the executor running both attempts of a hedged call
+     * @param enabled whether calls are hedged
+     * @param percentile the percentile of recent latencies after which the hedge starts, between 0 and 1
+     * @param minDelayMillis the shortest delay in milliseconds before a hedge starts
+     * @param minSamples the number of latencies recorded before calls are hedged
+     */
+    public Hedger(@Qualifier("gitHubExecutor") ExecutorService executor,
+                  @Value("${github.hedging.enabled}") boolean enabled,
+                  @Value("${github.hedging.percentile}") double percentile,
+                  @Value("${github.hedging.min-delay-ms}") long minDelayMillis,
+                  @Value("${github.hedging.min-samples}") int minSamples) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("github.hedging.percentile must be between 0 and 1");
+        }
+        this.executor = executor;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.minSamples = Math.max(1, Math.min(minSamples, WINDOW));
+    }
+
+    /**
+     * Runs a call, starting the hedge if it is slower than usual.
+     *
+     * @param attempt the call
+     * @param hedge the equivalent call started when the first one is slow
+     * @param <T> the result type
+     * @return the result of the first attempt to succeed
+     * @throws RuntimeException the exception thrown by the first attempt if no attempt succeeded
+     * @throws GitHubApiException if interrupted while waiting
+     */
+    public <T> T call(Supplier<T> attempt, Supplier<T> hedge) {
+        if (!enabled) {
+            return attempt.get();
+        }
+        long started = System.nanoTime();
+        long delay = delayNanos;
+        if (delay < 0) {
+            T result = attempt.get();
+            record(System.nanoTime() - started);
+            return result;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicReference<RuntimeException> firstError = new AtomicReference<>();
+        AtomicBoolean answered = new AtomicBoolean();
+        Future<?> first = executor.submit(() -> run(attempt, result, answered, pending, firstError, started));
+        Future<?> second = null;
+        try {
+            try {
+                return result.get(delay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                pending.incrementAndGet();
+            }
+            if (!result.isDone()) {
+                hedges.incrementAndGet();
+                second = executor.submit(() -> run(hedge, result, answered, pending, firstError, -1));
+            }
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitHubApiException("Interrupted while waiting for GitHub API");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new GitHubApiException("GitHub API error: " + e.getCause().getMessage());
+        } finally {
+            first.cancel(true);
+            if (second != null) {
+                second.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Runs one attempt. The first attempt, marked by its start time, records its latency when it succeeds.
+     * The winning attempt is counted before it completes the result, so the count is up to date when the
+     * caller gets the answer.
+     */
+    private <T> void run(Supplier<T> call, CompletableFuture<T> result, AtomicBoolean answered,
+                         AtomicInteger pending, AtomicReference<RuntimeException> firstError, long started) {
+        try {
+            T value = call.get();
+            if (started >= 0) {
+                record(System.nanoTime() - started);
+            }
+            if (answered.compareAndSet(false, true)) {
+                if (started < 0) {
+                    hedgeWins.incrementAndGet();
+                }
+                result.complete(value);
+            }
+        } catch (RuntimeException e) {
+            if (started >= 0) {
+                firstError.set(e);
+            } else {
+                firstError.compareAndSet(null, e);
+            }
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(firstError.get());
+            }
+        }
+    }
+
+    private synchronized void record(long latencyNanos) {
+        latencies[next] = latencyNanos;
+        next = (next + 1) % WINDOW;
+        samples = Math.min(samples + 1, WINDOW);
+        if (samples >= minSamples && (delayNanos < 0 || ++sinceUpdate >= UPDATE_INTERVAL)) {
+            sinceUpdate = 0;
+            long[] sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+            int index = Math.max(0, (int) Math.ceil(percentile * samples) - 1);
+            delayNanos = Math.max(minDelayNanos, sorted[index]);
+        }
+    }
+
+    /**
+     * Returns the delay after which a call is hedged.
+     *
+     * @return the delay in nanoseconds, or -1 while too few latencies were recorded
+     */
+    public long getDelayNanos() {
+        return delayNanos;
+    }
+
+    /**
+     * Returns the number of hedges started.
+     *
+     * @return the hedge count
+     */
+    public long getHedgeCount() {
+        return hedges.get();
+    }
+
+    /**
+     * Returns the number of calls answered by their hedge.
+     *
+     * @return the hedge win count
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder("github.hedging.requests", hedges, AtomicLong::get)
+                .tag("result", "hedged")
+                .description("Calls that started a hedge, and those the hedge answered")
+                .register(registry);
+        FunctionCounter.builder("github.hedging.requests", hedgeWins, AtomicLong::get)
+                .tag("result", "hedge_won")
+                .description("Calls that started a hedge, and those the hedge answered")
+                .register(registry);
+        Gauge.builder("github.hedging.delay", this, hedger -> Math.max(0, hedger.getDelayNanos()) / 1e6)
+                .baseUnit("milliseconds")
+                .description("Delay after which a call is hedged")
+                .register(registry);
+    }
+}
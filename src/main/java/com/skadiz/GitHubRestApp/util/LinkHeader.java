@@ -0,0 +1,88 @@
+package com.skadiz.GitHubRestApp.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser for the RFC 8288 {@code Link} header GitHub uses to paginate list endpoints, e.g.
+ * {@code <https://api.github.com/user/1/repos?per_page=100&page=2>; rel="next", <...&page=5>; rel="last"}.
+ */
+public final class LinkHeader {
+    private static final Pattern LINK = Pattern.compile("<([^>]*)>\\s*;\\s*rel=\"([^\"]*)\"");
+
+    private final Map<String, String> links;
+
+    private LinkHeader(Map<String, String> links) {
+        this.links = links;
+    }
+
+    /**
+     * Parses the {@code Link} header of the given response headers.
+     *
+     * @param headers the response headers, may be null
+     * @return the parsed links, empty if the header is absent
+     */
+    public static LinkHeader of(HttpHeaders headers) {
+        Map<String, String> links = new HashMap<>();
+        if (headers != null) {
+            for (String value : headers.getOrEmpty(HttpHeaders.LINK)) {
+                Matcher matcher = LINK.matcher(value);
+                while (matcher.find()) {
+                    for (String rel : matcher.group(2).trim().split("\\s+")) {
+                        links.put(rel, matcher.group(1));
+                    }
+                }
+            }
+        }
+        return new LinkHeader(links);
+    }
+
+    /**
+     * Returns the URL of the link with the given relation type.
+     *
+     * @param rel the relation type, e.g. "next" or "last"
+     * @return the URL, or null if there is no such link
+     */
+    public String get(String rel) {
+        return links.get(rel);
+    }
+
+    /**
+     * Returns the page number of the "last" link, which is the total number of pages.
+     *
+     * @return the last page number, or empty if the response has no "last" link
+     */
+    public OptionalInt lastPage() {
+        String last = links.get("last");
+        if (last == null) {
+            return OptionalInt.empty();
+        }
+        String page = UriComponentsBuilder.fromUriString(last).build().getQueryParams().getFirst("page");
+        try {
+            return page == null ? OptionalInt.empty() : OptionalInt.of(Integer.parseInt(page));
+        } catch (NumberFormatException e) {
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * Builds the URL of the given page from the "last" link, keeping its other query parameters.
+     *
+     * @param page the page number
+     * @return the URL of the requested page
+     * @throws IllegalStateException if the response has no "last" link
+     */
+    public String pageUrl(int page) {
+        String last = links.get("last");
+        if (last == null) {
+            throw new IllegalStateException("No rel=\"last\" link to derive page URLs from");
+        }
+        return UriComponentsBuilder.fromUriString(last).replaceQueryParam("page", page).build(true).toUriString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.skadiz.GitHubRestApp.util;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExecutorService} that runs every task with the {@link RequestPriority} of the thread that submitted it,
+ * so calls fanned out by background work keep their low priority.
+ */
+public class PriorityPropagatingExecutorService extends AbstractExecutorService {
+    private final ExecutorService delegate;
+
+    /**
+     * Constructs a new PriorityPropagatingExecutorService.
+     *
+     * @param delegate the executor actually running the tasks
+     */
+    public PriorityPropagatingExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(RequestPriority.propagate(command));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.skadiz.GitHubRestApp.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority of the GitHub API calls made by the current thread.
+ * Calls serving a client request run with {@link #HIGH} priority; background work such as cache refreshes
+ * runs with {@link #LOW} priority, so it is the first to be shed when the rate limit runs low.
+ */
+public enum RequestPriority {
+    HIGH,
+    LOW;
+
+    private static final ThreadLocal<RequestPriority> CURRENT = ThreadLocal.withInitial(() -> HIGH);
+
+    /**
+     * Returns the priority of the current thread.
+     *
+     * @return the current priority, {@link #HIGH} unless set otherwise
+     */
+    public static RequestPriority current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the given action with this priority on the current thread.
+     *
+     * @param action the action to run
+     * @param <T> the result type
+     * @return the result of the action
+     */
+    public <T> T call(Supplier<T> action) {
+        RequestPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Wraps the given task so it runs with the priority of the thread calling this method.
+     *
+     * @param task the task to wrap
+     * @return a task restoring the captured priority while it runs
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestPriority captured = current();
+        return () -> captured.call(() -> {
+            task.run();
+            return null;
+        });
+    }
+}
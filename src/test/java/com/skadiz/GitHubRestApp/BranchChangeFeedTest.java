@@ -0,0 +1,216 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import com.skadiz.GitHubRestApp.dto.BranchChangeDto;
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.CommitDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.SubscriptionLimitException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import com.skadiz.GitHubRestApp.services.BranchChangeFeed;
+import com.skadiz.GitHubRestApp.services.RepositoryAggregationService;
+import com.skadiz.GitHubRestApp.services.RepositoryCacheService;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BranchChangeFeedTest {
+
+    private RepositoryCacheService repositoryCacheService;
+    private RepositoryAggregationService aggregationService;
+    private ExecutorService executor;
+    private BranchChangeFeed feed;
+
+    @BeforeEach
+    public void setUp() {
+        repositoryCacheService = mock(RepositoryCacheService.class);
+        aggregationService = mock(RepositoryAggregationService.class);
+        executor = Executors.newSingleThreadExecutor();
+        feed = new BranchChangeFeed(repositoryCacheService, aggregationService, executor, 2);
+        when(repositoryCacheService.peekRepositoriesWithBranches(anyString())).thenReturn(null);
+        when(aggregationService.getRepositoriesWithBranches(eq("octocat"), isNull()))
+                .thenReturn(List.of(repository("repo1", branch("main", "a1"), branch("dev", "b1"))));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void testMovedBranchesArePushedToEverySubscriberFromOnePoll() throws Exception {
+        // Arrange
+        List<RequestPriority> priorities = new ArrayList<>();
+        when(aggregationService.getRepositoriesWithBranches(eq("octocat"), notNull())).thenAnswer(invocation -> {
+            priorities.add(RequestPriority.current());
+            return List.of(repository("repo1", branch("main", "a2")), repository("repo2", branch("main", "c1")));
+        });
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        feed.subscribe("octocat", first);
+        feed.subscribe("OctoCat", second);
+
+        // Act
+        poll();
+
+        // Assert
+        verify(aggregationService, times(1)).getRepositoriesWithBranches(eq("octocat"), notNull());
+        assertEquals(List.of(RequestPriority.LOW), priorities);
+        assertEquals(1, feed.getWatchedUserCount());
+        for (RecordingSubscriber subscriber : List.of(first, second)) {
+            assertEquals(2, subscriber.changes.size());
+            BranchChangeDto moved = subscriber.changes.get(0);
+            assertEquals("repo1", moved.getRepository());
+            assertEquals("a2", moved.getBranches().get(0).getCommit().getSha());
+            assertEquals(List.of("dev"), moved.getDeleted());
+            assertEquals("repo2", subscriber.changes.get(1).getRepository());
+            assertEquals(0, subscriber.heartbeats);
+        }
+    }
+
+    @Test
+    public void testUnchangedListingSendsHeartbeatOnly() throws Exception {
+        // Arrange
+        when(aggregationService.getRepositoriesWithBranches(eq("octocat"), notNull()))
+                .thenReturn(List.of(repository("repo1", branch("dev", "b1"), branch("main", "a1"))));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe("octocat", subscriber);
+
+        // Act
+        poll();
+
+        // Assert
+        assertTrue(subscriber.changes.isEmpty());
+        assertEquals(1, subscriber.heartbeats);
+    }
+
+    @Test
+    public void testStaleCachedListingIsNotReportedByFirstPoll() throws Exception {
+        // Arrange
+        List<RepositoryDto> stale = List.of(repository("repo1", branch("main", "a0"), branch("dev", "b0")));
+        List<RepositoryDto> current = List.of(repository("repo1", branch("main", "a1"), branch("dev", "b1")));
+        when(repositoryCacheService.peekRepositoriesWithBranches("octocat")).thenReturn(stale);
+        when(aggregationService.getRepositoriesWithBranches("octocat", stale)).thenReturn(current);
+        when(aggregationService.getRepositoriesWithBranches("octocat", current)).thenReturn(current);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe("octocat", subscriber);
+
+        // Act
+        poll();
+
+        // Assert
+        assertTrue(subscriber.changes.isEmpty());
+        assertEquals(1, subscriber.heartbeats);
+        verify(repositoryCacheService, never()).getRepositoriesWithBranches(anyString());
+    }
+
+    @Test
+    public void testGoneSubscriberIsDroppedAndLastOneEndsTheWatch() throws Exception {
+        // Arrange
+        when(aggregationService.getRepositoriesWithBranches(eq("octocat"), notNull()))
+                .thenReturn(List.of(repository("repo1", branch("main", "a2"))));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscriber.gone = true;
+        feed.subscribe("octocat", subscriber);
+
+        // Act
+        poll();
+        poll();
+
+        // Assert
+        assertEquals(0, feed.getWatchedUserCount());
+        verify(aggregationService, times(1)).getRepositoriesWithBranches(eq("octocat"), notNull());
+    }
+
+    @Test
+    public void testDeletedUserClosesSubscribers() throws Exception {
+        // Arrange
+        when(aggregationService.getRepositoriesWithBranches(eq("octocat"), notNull()))
+                .thenThrow(new UserNotFoundException("User not found"));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe("octocat", subscriber);
+
+        // Act
+        poll();
+
+        // Assert
+        assertTrue(subscriber.closed);
+        assertEquals(0, feed.getWatchedUserCount());
+    }
+
+    @Test
+    public void testSubscriptionsBeyondWatchedUserLimitAreRefused() {
+        // Arrange
+        when(aggregationService.getRepositoriesWithBranches(anyString(), isNull())).thenReturn(List.of());
+        feed.subscribe("user1", new RecordingSubscriber());
+        feed.subscribe("user2", new RecordingSubscriber());
+
+        // Act & Assert
+        assertThrows(SubscriptionLimitException.class, () -> feed.subscribe("user3", new RecordingSubscriber()));
+        feed.subscribe("user1", new RecordingSubscriber());
+        assertEquals(2, feed.getWatchedUserCount());
+    }
+
+    /**
+     * Runs one round of polls and waits for it, polls running one at a time on the single-threaded executor.
+     */
+    private void poll() throws Exception {
+        feed.pollAll();
+        executor.submit(() -> { }).get();
+    }
+
+    private static RepositoryDto repository(String name, BranchDto... branches) {
+        RepositoryDto repository = new RepositoryDto();
+        repository.setName(name);
+        repository.setBranches(List.of(branches));
+        return repository;
+    }
+
+    private static BranchDto branch(String name, String sha) {
+        CommitDto commit = new CommitDto();
+        commit.setSha(sha);
+        BranchDto branch = new BranchDto();
+        branch.setName(name);
+        branch.setCommit(commit);
+        return branch;
+    }
+
+    private static class RecordingSubscriber implements BranchChangeFeed.Subscriber {
+        private final List<BranchChangeDto> changes = new ArrayList<>();
+        private int heartbeats;
+        private boolean gone;
+        private boolean closed;
+
+        @Override
+        public void send(BranchChangeDto change) throws IOException {
+            if (gone) {
+                throw new IOException("Broken pipe");
+            }
+            changes.add(change);
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            if (gone) {
+                throw new IOException("Broken pipe");
+            }
+            heartbeats++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import com.skadiz.GitHubRestApp.interceptors.CoalescingInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CoalescingInterceptorTest {
+
+    private static final URI BRANCHES = URI.create("https://api.github.com/repos/testuser/repo1/branches?per_page=100");
+
+    private final CoalescingInterceptor interceptor = new CoalescingInterceptor(true);
+
+    @Test
+    public void testConcurrentCallsShareOneResponse() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger sent = new AtomicInteger();
+
+        // Act
+        Future<String> leader;
+        Future<String> follower;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            leader = executor.submit(() -> call(() -> {
+                sent.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException("Cancelled");
+                }
+                return "[]";
+            }));
+            awaitLeaders(1);
+            follower = executor.submit(() -> call(() -> "unexpected"));
+            awaitDeduplicated(1);
+            release.countDown();
+        }
+
+        // Assert
+        assertEquals("[]", leader.get());
+        assertEquals("[]", follower.get());
+        assertEquals(1, sent.get());
+    }
+
+    @Test
+    public void testInterruptedLeaderDoesNotFailFollowers() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Exception> leaderError = new AtomicReference<>();
+        Thread leader = Thread.ofVirtual().start(() -> {
+            try {
+                call(() -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(60_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Cancelled");
+                    }
+                    return "unexpected";
+                });
+            } catch (Exception e) {
+                leaderError.set(e);
+            }
+        });
+        started.await();
+
+        // Act
+        Future<String> follower;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            follower = executor.submit(() -> call(() -> "[]"));
+            awaitDeduplicated(1);
+            leader.interrupt();
+            leader.join();
+        }
+
+        // Assert
+        assertInstanceOf(InterruptedIOException.class, leaderError.get());
+        assertEquals("[]", follower.get());
+        assertEquals(2, interceptor.getLeaderCount());
+    }
+
+    private String call(Body body) throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, BRANCHES);
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0], (req, bytes) ->
+                new MockClientHttpResponse(body.get().getBytes(StandardCharsets.UTF_8), HttpStatus.OK))) {
+            return new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void awaitLeaders(long count) throws InterruptedException {
+        while (interceptor.getLeaderCount() < count) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitDeduplicated(long count) throws InterruptedException {
+        while (interceptor.getDeduplicatedCount() < count) {
+            Thread.sleep(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        String get() throws IOException;
+    }
+}
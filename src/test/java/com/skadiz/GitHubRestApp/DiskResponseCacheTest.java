@@ -0,0 +1,150 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.skadiz.GitHubRestApp.cache.CachedResponse;
+import com.skadiz.GitHubRestApp.cache.DiskResponseCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class DiskResponseCacheTest {
+
+    private static final String URL = "https://api.github.com/users/testuser/repos?per_page=100";
+    private static final long HOUR = 3_600_000;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testResponsesSurviveReopening() {
+        // Arrange
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+            cache.put(URL, response("\"v1\"", "[1]"));
+            cache.put(URL, response("\"v2\"", "[2]"));
+        }
+
+        // Act
+        try (DiskResponseCache reopened = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+            CachedResponse cached = reopened.get(URL);
+
+            // Assert
+            assertEquals("\"v2\"", cached.etag());
+            assertEquals("application/json", cached.headers().getFirst(HttpHeaders.CONTENT_TYPE));
+            assertArrayEquals("[2]".getBytes(StandardCharsets.UTF_8), cached.body());
+            assertEquals(1, reopened.size());
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordIsDiscardedOnReopening() throws IOException {
+        // Arrange
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+            cache.put(URL, response("\"v1\"", "[1]"));
+            cache.put(URL + "&page=2", response("\"v2\"", "[2]"));
+        }
+        Path file = directory.resolve("responses.log");
+        long size = Files.size(file);
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 2);
+        }
+
+        // Act
+        try (DiskResponseCache reopened = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+
+            // Assert
+            assertEquals("\"v1\"", reopened.get(URL).etag());
+            assertNull(reopened.get(URL + "&page=2"));
+            assertTrue(Files.size(file) < size - 2);
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsOnlyLiveRecords() {
+        // Arrange
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+            for (int i = 0; i < 10; i++) {
+                cache.put(URL, response("\"v" + i + "\"", "[" + i + "]"));
+            }
+            long before = cache.fileSizeInBytes();
+
+            // Act
+            cache.compact();
+
+            // Assert
+            assertTrue(cache.fileSizeInBytes() < before / 5);
+            assertEquals("\"v9\"", cache.get(URL).etag());
+            assertEquals(1, cache.getCompactionCount());
+        }
+    }
+
+    @Test
+    public void testAsyncWritesAreFlushedOnClose() {
+        // Arrange
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+            for (int i = 0; i < 10; i++) {
+                cache.putAsync(URL + "&page=" + i, response("\"v" + i + "\"", "[" + i + "]"));
+            }
+        }
+
+        // Act
+        try (DiskResponseCache reopened = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+
+            // Assert
+            assertEquals(10, reopened.size());
+            assertEquals("\"v9\"", reopened.get(URL + "&page=9").etag());
+        }
+    }
+
+    @Test
+    public void testRecordsWrittenAfterCompactionSurviveReopening() {
+        // Arrange
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+            for (int i = 0; i < 10; i++) {
+                cache.put(URL, response("\"v" + i + "\"", "[" + i + "]"));
+            }
+            cache.compact();
+
+            // Act
+            cache.put(URL + "&page=2", response("\"p2\"", "[2]"));
+        }
+
+        // Assert
+        try (DiskResponseCache reopened = new DiskResponseCache(directory, 1024 * 1024, HOUR)) {
+            assertEquals("\"v9\"", reopened.get(URL).etag());
+            assertEquals("\"p2\"", reopened.get(URL + "&page=2").etag());
+        }
+    }
+
+    @Test
+    public void testOldestRecordsAreEvictedOverByteLimit() {
+        // Arrange
+        try (DiskResponseCache cache = new DiskResponseCache(directory, 1024, HOUR)) {
+
+            // Act
+            for (int i = 0; i < 20; i++) {
+                cache.put(URL + "&page=" + i, response("\"v" + i + "\"", "[" + i + "]"));
+            }
+
+            // Assert
+            assertNull(cache.get(URL + "&page=0"));
+            assertEquals("\"v19\"", cache.get(URL + "&page=19").etag());
+        }
+    }
+
+    private static CachedResponse response(String etag, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/json");
+        return new CachedResponse(headers, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
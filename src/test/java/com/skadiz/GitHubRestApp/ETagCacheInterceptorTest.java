@@ -0,0 +1,130 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.skadiz.GitHubRestApp.cache.CachedResponse;
+import com.skadiz.GitHubRestApp.cache.LruResponseCache;
+import com.skadiz.GitHubRestApp.interceptors.ETagCacheInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+public class ETagCacheInterceptorTest {
+
+    private static final String URL = "https://api.github.com/users/testuser/repos?per_page=100";
+
+    private ETagCacheInterceptor interceptor;
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    public void setUp() {
+        interceptor = new ETagCacheInterceptor(true, 1024 * 1024);
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(interceptor));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    public void testNotModifiedServedFromCache() {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc\"");
+        server.expect(requestTo(URL))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(withSuccess("[{\"name\":\"repo1\"}]", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo(URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        // Act
+        String first = restTemplate.getForObject(URL, String.class);
+        String second = restTemplate.getForObject(URL, String.class);
+
+        // Assert
+        server.verify();
+        assertEquals(first, second);
+        assertEquals(1, interceptor.getMissCount());
+        assertEquals(1, interceptor.getHitCount());
+        assertEquals(1, interceptor.getNotModifiedCount());
+    }
+
+    @Test
+    public void testChangedResponseReplacesCachedEntry() {
+        // Arrange
+        HttpHeaders firstHeaders = new HttpHeaders();
+        firstHeaders.setETag("\"v1\"");
+        HttpHeaders secondHeaders = new HttpHeaders();
+        secondHeaders.setETag("\"v2\"");
+        server.expect(requestTo(URL))
+                .andRespond(withSuccess("[1]", MediaType.APPLICATION_JSON).headers(firstHeaders));
+        server.expect(requestTo(URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withSuccess("[2]", MediaType.APPLICATION_JSON).headers(secondHeaders));
+        server.expect(requestTo(URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v2\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        // Act
+        restTemplate.getForObject(URL, String.class);
+        restTemplate.getForObject(URL, String.class);
+        String third = restTemplate.getForObject(URL, String.class);
+
+        // Assert
+        server.verify();
+        assertEquals("[2]", third);
+    }
+
+    @Test
+    public void testServerErrorServedFromCache() {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc\"");
+        server.expect(requestTo(URL))
+                .andRespond(withSuccess("[1]", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo(URL))
+                .andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+
+        // Act
+        restTemplate.getForObject(URL, String.class);
+        ResponseEntity<String> stale = restTemplate.getForEntity(URL, String.class);
+
+        // Assert
+        server.verify();
+        assertEquals("[1]", stale.getBody());
+        assertEquals(ETagCacheInterceptor.STALE_WARNING, stale.getHeaders().getFirst(HttpHeaders.WARNING));
+        assertEquals(1, interceptor.getStaleIfErrorCount());
+    }
+
+    @Test
+    public void testLruCacheEvictsLeastRecentlyUsed() {
+        // Arrange
+        LruResponseCache cache = new LruResponseCache(300);
+        cache.put("a", new CachedResponse(new HttpHeaders(), new byte[100]));
+        cache.put("b", new CachedResponse(new HttpHeaders(), new byte[100]));
+        cache.get("a");
+
+        // Act
+        cache.put("c", new CachedResponse(new HttpHeaders(), new byte[100]));
+
+        // Assert
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.evictionCount());
+    }
+}
@@ -0,0 +1,359 @@
+package com.skadiz.GitHubRestApp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for api.github.com, serving the repository and branch listings of any user from an embedded
+ * HTTP server. Every user owns {@code repositories} repositories named {@code repo-0, repo-1, ...}, every
+ * repository has {@code branchesPerRepository} branches, and every response is delayed by {@code latencyMillis}.
+ * With a fixture directory, recorded payloads are served instead: {@code users/<user>/repos.json} and
+ * {@code repos/<user>/<repo>/branches.json}, falling back to {@code users/default/repos.json} and
+ * {@code repos/default/branches.json}.
+ * Listings are paginated with {@code Link} headers like GitHub's, carry an {@code ETag} and answer a matching
+ * {@code If-None-Match} with 304. The user {@code ghost} does not exist. A share of the calls can be answered with
+ * a 500 error or a secondary rate limit (403 with {@code Retry-After}).
+ */
+public class FakeGitHubServer implements AutoCloseable {
+    private static final Pattern REPOS = Pattern.compile("/users/([^/]+)/repos");
+    private static final Pattern BRANCHES = Pattern.compile("/repos/([^/]+)/([^/]+)/branches");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int repositories;
+    private final int branchesPerRepository;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final String fixtures;
+    private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+    private final Map<String, Optional<List<JsonNode>>> recorded = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimits = new AtomicLong();
+
+    private FakeGitHubServer(Builder builder) throws IOException {
+        this.repositories = builder.repositories;
+        this.branchesPerRepository = builder.branchesPerRepository;
+        this.latencyMillis = builder.latencyMillis;
+        this.errorRate = builder.errorRate;
+        this.rateLimitRate = builder.rateLimitRate;
+        this.fixtures = builder.fixtures;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Starts a server on a free local port.
+     *
+     * @param repositories the number of repositories of every user
+     * @param branchesPerRepository the number of branches of every repository
+     * @param latencyMillis the delay in milliseconds before every response
+     * @return the running server
+     * @throws IOException if the server cannot be started
+     */
+    public static FakeGitHubServer start(int repositories, int branchesPerRepository, long latencyMillis)
+            throws IOException {
+        return builder().repositories(repositories).branchesPerRepository(branchesPerRepository)
+                .latencyMillis(latencyMillis).start();
+    }
+
+    /**
+     * Returns a builder for a server with injected faults or recorded payloads.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the base URL to configure as {@code github.api.url}.
+     *
+     * @return the base URL of the server
+     */
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of requests served so far.
+     *
+     * @return the request count
+     */
+    public long requestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of requests answered with an injected 500 error.
+     *
+     * @return the injected error count
+     */
+    public long errorCount() {
+        return errors.get();
+    }
+
+    /**
+     * Returns the number of requests answered with an injected secondary rate limit.
+     *
+     * @return the injected rate limit count
+     */
+    public long rateLimitCount() {
+        return rateLimits.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            URI uri = exchange.getRequestURI();
+            Map<String, String> query = query(uri.getRawQuery());
+            int perPage = Integer.parseInt(query.getOrDefault("per_page", "30"));
+            int page = Integer.parseInt(query.getOrDefault("page", "1"));
+
+            Matcher repos = REPOS.matcher(uri.getPath());
+            Matcher branches = BRANCHES.matcher(uri.getPath());
+            int total;
+            String owner;
+            String repository = null;
+            if (repos.matches()) {
+                owner = repos.group(1);
+                total = repositories;
+            } else if (branches.matches()) {
+                owner = branches.group(1);
+                repository = branches.group(2);
+                total = branchesPerRepository;
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if ("ghost".equals(owner)) {
+                send(exchange, 404, "{\"message\":\"Not Found\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            double fault = ThreadLocalRandom.current().nextDouble();
+            if (fault < errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 500, "{\"message\":\"Server Error\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (fault < errorRate + rateLimitRate) {
+                rateLimits.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                send(exchange, 403, ("{\"message\":\"You have exceeded a secondary rate limit. "
+                        + "Please wait a few minutes before you try again.\"}").getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            List<JsonNode> fixture = fixture(owner, repository);
+            if (fixture != null) {
+                total = fixture.size();
+            }
+
+            int lastPage = Math.max(1, (total + perPage - 1) / perPage);
+            if (page < lastPage) {
+                String base = url() + uri.getPath() + "?per_page=" + perPage + "&page=";
+                exchange.getResponseHeaders().add("Link", "<" + base + (page + 1) + ">; rel=\"next\", <"
+                        + base + lastPage + ">; rel=\"last\"");
+            }
+            String key = uri.getPath() + "?" + perPage + ":" + page;
+            String name = repository;
+            int count = total;
+            byte[] body = bodies.computeIfAbsent(key, k -> fixture != null
+                    ? slice(fixture, perPage, page)
+                    : render(owner, name, count, perPage, page));
+            String etag = "\"" + Integer.toHexString(key.hashCode()) + "\"";
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            send(exchange, 200, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] render(String owner, String repository, int total, int perPage, int page) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = (page - 1) * perPage; i < Math.min(total, page * perPage); i++) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            if (repository == null) {
+                json.append("{\"name\":\"repo-").append(i).append("\",\"owner\":{\"login\":\"").append(owner)
+                        .append("\"},\"fork\":false}");
+            } else {
+                json.append("{\"name\":\"branch-").append(i).append("\",\"commit\":{\"sha\":\"")
+                        .append(String.format("%040x", (long) (repository + i).hashCode() & 0xffffffffL))
+                        .append("\"}}");
+            }
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the recorded payload of the given listing, or {@code null} if none is recorded.
+     */
+    private List<JsonNode> fixture(String owner, String repository) {
+        if (fixtures == null) {
+            return null;
+        }
+        List<String> candidates = repository == null
+                ? List.of("users/" + owner + "/repos.json", "users/default/repos.json")
+                : List.of("repos/" + owner + "/" + repository + "/branches.json", "repos/default/branches.json");
+        return recorded.computeIfAbsent(candidates.get(0), key -> {
+            for (String candidate : candidates) {
+                try (InputStream in = FakeGitHubServer.class.getResourceAsStream("/" + fixtures + "/" + candidate)) {
+                    if (in != null) {
+                        List<JsonNode> items = new ArrayList<>();
+                        MAPPER.readTree(in).forEach(items::add);
+                        return Optional.of(items);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return Optional.empty();
+        }).orElse(null);
+    }
+
+    private static byte[] slice(List<JsonNode> items, int perPage, int page) {
+        try {
+            int from = Math.min(items.size(), (page - 1) * perPage);
+            return MAPPER.writeValueAsBytes(items.subList(from, Math.min(items.size(), page * perPage)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Builder of a {@link FakeGitHubServer}.
+     */
+    public static class Builder {
+        private int repositories = 10;
+        private int branchesPerRepository = 1;
+        private long latencyMillis;
+        private double errorRate;
+        private double rateLimitRate;
+        private String fixtures;
+
+        /**
+         * @param repositories the number of synthetic repositories of every user
+         * @return this builder
+         */
+        public Builder repositories(int repositories) {
+            this.repositories = repositories;
+            return this;
+        }
+
+        /**
+         * @param branchesPerRepository the number of synthetic branches of every repository
+         * @return this builder
+         */
+        public Builder branchesPerRepository(int branchesPerRepository) {
+            this.branchesPerRepository = branchesPerRepository;
+            return this;
+        }
+
+        /**
+         * @param latencyMillis the delay in milliseconds before every response
+         * @return this builder
+         */
+        public Builder latencyMillis(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * @param errorRate the share of calls answered with a 500 error, between 0 and 1
+         * @return this builder
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * @param rateLimitRate the share of calls answered with a secondary rate limit, between 0 and 1
+         * @return this builder
+         */
+        public Builder rateLimitRate(double rateLimitRate) {
+            this.rateLimitRate = rateLimitRate;
+            return this;
+        }
+
+        /**
+         * @param fixtures the classpath directory holding recorded payloads
+         * @return this builder
+         */
+        public Builder fixtures(String fixtures) {
+            this.fixtures = fixtures;
+            return this;
+        }
+
+        /**
+         * Starts the server on a free local port.
+         *
+         * @return the running server
+         * @throws IOException if the server cannot be started
+         */
+        public FakeGitHubServer start() throws IOException {
+            return new FakeGitHubServer(this);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new ConcurrentHashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    params.put(pair.substring(0, separator), pair.substring(separator + 1));
+                }
+            }
+        }
+        return params;
+    }
+}
@@ -1,24 +1,51 @@
 package com.skadiz.GitHubRestApp;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import com.skadiz.GitHubRestApp.config.ExecutorConfig;
 import com.skadiz.GitHubRestApp.dto.BranchDto;
 import com.skadiz.GitHubRestApp.dto.CommitDto;
 import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.GitHubUnavailableException;
 import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import com.skadiz.GitHubRestApp.services.BatchRepositoryService;
+import com.skadiz.GitHubRestApp.services.BranchChangeFeed;
+import com.skadiz.GitHubRestApp.services.GitHubGraphQlService;
 import com.skadiz.GitHubRestApp.services.GitHubService;
+import com.skadiz.GitHubRestApp.services.ListingEncoder;
+import com.skadiz.GitHubRestApp.services.RepositoryAggregationService;
+import com.skadiz.GitHubRestApp.services.RepositoryCacheService;
 import com.skadiz.GitHubRestApp.controllers.GitHubController;
+import com.skadiz.GitHubRestApp.util.Hedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 @WebMvcTest(GitHubController.class)
+@Import({RepositoryCacheService.class, RepositoryAggregationService.class, BatchRepositoryService.class,
+        BranchChangeFeed.class, ListingEncoder.class, Hedger.class, ExecutorConfig.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {"github.listing-cache.enabled=false", "github.batch.max-usernames=3",
+        "github.listing-cache.compression.min-bytes=0"})
 public class GitHubControllerTest {
 
     @Autowired
@@ -27,6 +54,9 @@ public class GitHubControllerTest {
     @MockBean
     private GitHubService gitHubService;
 
+    @MockBean
+    private GitHubGraphQlService gitHubGraphQlService;
+
     @Test
     public void testGetRepositories_Success() throws Exception {
         // Arrange
@@ -46,7 +76,7 @@ public class GitHubControllerTest {
         branch.setCommit(commit);
         List<RepositoryDto> repos = Arrays.asList(repo1, repo2);
 
-        when(gitHubService.getUserRepositories(username)).thenReturn(repos);
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(List.of(CompletableFuture.completedFuture(repos)));
         when(gitHubService.getRepositoryBranches(username, "repo1")).thenReturn(Arrays.asList(branch));
         when(gitHubService.getRepositoryBranches(username, "repo2")).thenReturn(Arrays.asList(branch));
 
@@ -60,13 +90,136 @@ public class GitHubControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[1].name").value("repo2"));
     }
 
+    @Test
+    public void testGetRepositories_NotModifiedWhenETagMatches() throws Exception {
+        // Arrange
+        String username = "testuser";
+        RepositoryDto repo1 = new RepositoryDto();
+        repo1.setName("repo1");
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenReturn(List.of(CompletableFuture.completedFuture(List.of(repo1))));
+        when(gitHubService.getRepositoryBranches(username, "repo1")).thenReturn(List.of());
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", username)
+                        .header("Accept", "application/json"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.LAST_MODIFIED))
+                // Listings are not cached in this test, so clients must revalidate every time
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "max-age=0, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", username)
+                        .header("Accept", "application/json")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(MockMvcResultMatchers.content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void testGetRepositories_GzipWhenAccepted() throws Exception {
+        // Arrange
+        String username = "testuser";
+        RepositoryDto repo1 = new RepositoryDto();
+        repo1.setName("repo1");
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenReturn(List.of(CompletableFuture.completedFuture(List.of(repo1))));
+        when(gitHubService.getRepositoryBranches(username, "repo1")).thenReturn(List.of());
+
+        // Act
+        MockHttpServletResponse response = mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/repositories/{username}", username)
+                        .header("Accept", "application/json")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(json.startsWith("[{\"name\":\"repo1\""));
+        }
+        assertTrue(response.getHeader(HttpHeaders.ETAG).endsWith("-gzip\""));
+    }
+
+    @Test
+    public void testGetRepositories_StreamsNdjson() throws Exception {
+        // Arrange
+        String username = "testuser";
+        RepositoryDto repo1 = new RepositoryDto();
+        repo1.setName("repo1");
+        RepositoryDto repo2 = new RepositoryDto();
+        repo2.setName("repo2");
+
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenReturn(List.of(CompletableFuture.completedFuture(Arrays.asList(repo1, repo2))));
+        when(gitHubService.getRepositoryBranches(eq(username), anyString())).thenReturn(List.of());
+
+        // Act
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", username)
+                        .header("Accept", "application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        List<String> lines = body.lines().sorted().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"repo1\""));
+        assertTrue(lines.get(1).contains("\"name\":\"repo2\""));
+    }
+
+    @Test
+    public void testGetRepositories_StreamsJsonArray() throws Exception {
+        // Arrange
+        String username = "testuser";
+        RepositoryDto repo1 = new RepositoryDto();
+        repo1.setName("repo1");
+
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenReturn(List.of(CompletableFuture.completedFuture(List.of(repo1))));
+        when(gitHubService.getRepositoryBranches(username, "repo1")).thenReturn(List.of());
+
+        // Act
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", username)
+                        .param("stream", "true")
+                        .header("Accept", "application/json"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("repo1"));
+    }
+
+    @Test
+    public void testGetRepositories_StreamReportsUserNotFound() throws Exception {
+        // Arrange
+        String username = "testuser";
+
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenThrow(new UserNotFoundException("User not found"));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", username)
+                        .header("Accept", "application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("User not found"));
+    }
+
     @Test
     public void testGetRepositories_WrongAcceptHeader() throws Exception {
         // Act & Assert
         mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", "testuser")
                         .header("Accept", "text/plain"))
                 .andExpect(MockMvcResultMatchers.status().isNotAcceptable())
-                .andExpect(MockMvcResultMatchers.content().string("Accept header must be 'application/json'"));
+                .andExpect(MockMvcResultMatchers.content().string("Accept header must be 'application/json' or 'application/x-ndjson'"));
     }
 
     @Test
@@ -74,7 +227,7 @@ public class GitHubControllerTest {
         // Arrange
         String username = "testuser";
 
-        when(gitHubService.getUserRepositories(username))
+        when(gitHubService.getUserRepositoryPages(username))
                 .thenThrow(new UserNotFoundException("User not found"));
 
         // Act & Assert
@@ -84,6 +237,119 @@ public class GitHubControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(404))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("User not found"));
     }
-}
 
+    @Test
+    public void testGetRepositories_GitHubUnavailableException() throws Exception {
+        // Arrange
+        String username = "testuser";
+
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenThrow(new GitHubUnavailableException("GitHub API is temporarily unavailable", 30));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", username)
+                        .header("Accept", "application/json"))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "30"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(503))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message")
+                        .value("GitHub API is temporarily unavailable"));
+    }
+
+    @Test
+    public void testGetRepositories_FiltersAndProjects() throws Exception {
+        // Arrange
+        String username = "testuser";
+        RepositoryDto repo1 = new RepositoryDto();
+        repo1.setName("api-server");
+        RepositoryDto repo2 = new RepositoryDto();
+        repo2.setName("website");
+        BranchDto main = new BranchDto();
+        main.setName("main");
+        BranchDto feature = new BranchDto();
+        feature.setName("feature/login");
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenReturn(List.of(CompletableFuture.completedFuture(List.of(repo1, repo2))));
+        when(gitHubService.getRepositoryBranches(username, "api-server")).thenReturn(List.of(main, feature));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", username)
+                        .header("Accept", "application/json")
+                        .param("name", "api-*")
+                        .param("branch", "main")
+                        .param("fields", "name,branches"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.ETAG))
+                .andExpect(MockMvcResultMatchers.content().json(
+                        "[{\"name\":\"api-server\",\"branches\":[{\"name\":\"main\",\"commit\":null}]}]", true));
+        verify(gitHubService, never()).getRepositoryBranches(username, "website");
+    }
+
+    @Test
+    public void testGetRepositories_RejectsInvalidPageSize() throws Exception {
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}", "testuser")
+                        .header("Accept", "application/json")
+                        .param("size", "500"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("size must be between 1 and 100"));
+        verifyNoInteractions(gitHubService);
+    }
+
+    @Test
+    public void testWatchRepositories_UserNotFoundBeforeStreamStarts() throws Exception {
+        // Arrange
+        String username = "ghost";
+
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenThrow(new UserNotFoundException("User not found"));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/repositories/{username}/events", username)
+                        .header("Accept", "text/event-stream"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("User not found"));
+    }
+
+    @Test
+    public void testGetRepositoriesBatch_StreamsOneLinePerUser() throws Exception {
+        // Arrange
+        RepositoryDto repo1 = new RepositoryDto();
+        repo1.setName("repo1");
+
+        when(gitHubService.getUserRepositoryPages("testuser"))
+                .thenReturn(List.of(CompletableFuture.completedFuture(List.of(repo1))));
+        when(gitHubService.getRepositoryBranches("testuser", "repo1")).thenReturn(List.of());
+        when(gitHubService.getUserRepositoryPages("ghost"))
+                .thenThrow(new UserNotFoundException("User not found"));
+
+        // Act
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/repositories:batch")
+                        .contentType("application/json")
+                        .header("Accept", "application/x-ndjson")
+                        .content("{\"usernames\":[\"testuser\",\"ghost\",\"TestUser\"]}"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
 
+        // Assert
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> lines = body.lines().sorted().toList();
+        assertEquals(2, lines.size());
+        assertEquals("{\"username\":\"ghost\",\"status\":404,\"message\":\"User not found\"}", lines.get(0));
+        assertTrue(lines.get(1).contains("\"username\":\"testuser\",\"repositories\":[{\"name\":\"repo1\""));
+        verify(gitHubService, times(1)).getUserRepositoryPages("testuser");
+    }
+
+    @Test
+    public void testGetRepositoriesBatch_TooManyUsernames() throws Exception {
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/repositories:batch")
+                        .contentType("application/json")
+                        .header("Accept", "application/x-ndjson")
+                        .content("{\"usernames\":[\"a\",\"b\",\"c\",\"d\"]}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(400));
+    }
+}
@@ -0,0 +1,98 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.services.GitHubGraphQlService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+public class GitHubGraphQlServiceTest {
+
+    private static final String GRAPHQL_URL = "https://api.github.com/graphql";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RestTemplate restTemplate;
+    private GitHubGraphQlService gitHubGraphQlService;
+
+    @BeforeEach
+    public void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        gitHubGraphQlService = new GitHubGraphQlService(restTemplate, GRAPHQL_URL);
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_ListsPublicRepositoriesOnly() throws Exception {
+        // Arrange
+        ArgumentCaptor<Object> request = ArgumentCaptor.forClass(Object.class);
+        when(restTemplate.postForEntity(eq(GRAPHQL_URL), request.capture(), eq(JsonNode.class)))
+                .thenReturn(ResponseEntity.ok(objectMapper.readTree("""
+                        {"data": {"repositoryOwner": {"repositories": {
+                          "pageInfo": {"hasNextPage": false, "endCursor": null},
+                          "nodes": [{"name": "repo1", "isFork": false, "owner": {"login": "testuser"},
+                                     "refs": {"pageInfo": {"hasNextPage": false, "endCursor": null},
+                                              "nodes": [{"name": "main", "target": {"oid": "abc"}}]}}]
+                        }}}}
+                        """)));
+
+        // Act
+        List<RepositoryDto> result = gitHubGraphQlService.getRepositoriesWithBranches("testuser");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("abc", result.get(0).getBranches().get(0).getCommit().getSha());
+        String query = (String) ((Map<?, ?>) request.getValue()).get("query");
+        assertTrue(query.contains("privacy: PUBLIC"), query);
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_RateLimitedCarriesRetryAfter() throws Exception {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Remaining", "0");
+        headers.set("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 120));
+        when(restTemplate.postForEntity(eq(GRAPHQL_URL), any(), eq(JsonNode.class)))
+                .thenReturn(ResponseEntity.ok().headers(headers).body(objectMapper.readTree("""
+                        {"errors": [{"type": "RATE_LIMITED", "message": "API rate limit exceeded"}]}
+                        """)));
+
+        // Act
+        RateLimitExceededException thrown = assertThrows(RateLimitExceededException.class,
+                () -> gitHubGraphQlService.getRepositoriesWithBranches("testuser"));
+
+        // Assert
+        assertTrue(thrown.getRetryAfterSeconds() >= 119 && thrown.getRetryAfterSeconds() <= 120,
+                String.valueOf(thrown.getRetryAfterSeconds()));
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_RateLimitResponse() {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        when(restTemplate.postForEntity(eq(GRAPHQL_URL), any(), eq(JsonNode.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.FORBIDDEN, "Forbidden", headers, null, null));
+
+        // Act
+        RateLimitExceededException thrown = assertThrows(RateLimitExceededException.class,
+                () -> gitHubGraphQlService.getRepositoriesWithBranches("testuser"));
+
+        // Assert
+        assertEquals(30, thrown.getRetryAfterSeconds());
+    }
+}
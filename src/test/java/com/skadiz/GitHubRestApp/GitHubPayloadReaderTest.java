@@ -0,0 +1,112 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.services.GitHubPayloadReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class GitHubPayloadReaderTest {
+
+    private static final String REPOSITORIES = "/fixtures/github/users/default/repos.json";
+    private static final String BRANCHES = "/fixtures/github/repos/default/branches.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Test
+    public void testReadRepositories_MatchesDataBindingWithoutForks() throws IOException {
+        // Arrange
+        List<RepositoryDto> expected;
+        try (InputStream in = getClass().getResourceAsStream(REPOSITORIES)) {
+            expected = Arrays.stream(objectMapper.readValue(in, RepositoryDto[].class))
+                    .filter(repository -> !repository.isFork())
+                    .toList();
+        }
+
+        // Act
+        List<RepositoryDto> result;
+        try (InputStream in = getClass().getResourceAsStream(REPOSITORIES)) {
+            result = GitHubPayloadReader.readRepositories(in);
+        }
+
+        // Assert
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), result.get(i).getName());
+            assertEquals(expected.get(i).getOwner().getLogin(), result.get(i).getOwner().getLogin());
+            assertEquals(expected.get(i).getPushedAt(), result.get(i).getPushedAt());
+            assertEquals(expected.get(i).getUpdatedAt(), result.get(i).getUpdatedAt());
+        }
+    }
+
+    @Test
+    public void testReadBranches_MatchesDataBinding() throws IOException {
+        // Arrange
+        BranchDto[] expected;
+        try (InputStream in = getClass().getResourceAsStream(BRANCHES)) {
+            expected = objectMapper.readValue(in, BranchDto[].class);
+        }
+
+        // Act
+        List<BranchDto> result;
+        try (InputStream in = getClass().getResourceAsStream(BRANCHES)) {
+            result = GitHubPayloadReader.readBranches(in);
+        }
+
+        // Assert
+        assertEquals(expected.length, result.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getName(), result.get(i).getName());
+            assertEquals(expected[i].getCommit().getSha(), result.get(i).getCommit().getSha());
+        }
+    }
+
+    @Test
+    public void testReadRepositories_ToleratesMissingAndNullFields() throws IOException {
+        // Arrange
+        String body = "[{\"name\":\"repo1\",\"owner\":null,\"pushed_at\":null},{\"fork\":true,\"name\":\"repo2\"}]";
+
+        // Act
+        List<RepositoryDto> result = GitHubPayloadReader.readRepositories(stream(body));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("repo1", result.get(0).getName());
+        assertNull(result.get(0).getOwner());
+        assertNull(result.get(0).getPushedAt());
+    }
+
+    @Test
+    public void testReadRepositories_EmptyBodyHasNoRepositories() throws IOException {
+        // Act
+        List<RepositoryDto> result = GitHubPayloadReader.readRepositories(stream(""));
+
+        // Assert
+        assertEquals(List.of(), result);
+    }
+
+    @Test
+    public void testReadRepositories_RejectsNonArrayBody() {
+        // Act & Assert
+        assertThrows(IOException.class, () -> GitHubPayloadReader.readRepositories(
+                stream("{\"message\":\"Not Found\"}")));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,61 +5,65 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 import com.skadiz.GitHubRestApp.dto.BranchDto;
-import com.skadiz.GitHubRestApp.dto.CommitDto;
 import com.skadiz.GitHubRestApp.dto.RepositoryDto;
 import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubUnavailableException;
 import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import com.skadiz.GitHubRestApp.interceptors.CallNotPermittedException;
 import com.skadiz.GitHubRestApp.services.GitHubService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class GitHubServiceTest {
 
 	@Mock
 	private RestTemplate restTemplate;
 
-	@InjectMocks
 	private GitHubService gitHubService;
 
 	private final String githubApiUrl = "https://api.github.com";
 
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
 	@BeforeEach
 	public void setUp() {
 		MockitoAnnotations.openMocks(this);
 		// Initialize GitHubService with mocked RestTemplate and URL
-		gitHubService = new GitHubService(restTemplate, githubApiUrl);
+		gitHubService = new GitHubService(restTemplate, githubApiUrl, executor, 4);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.close();
 	}
 
 	@Test
 	public void testGetUserRepositories_Success() {
 		// Arrange
 		String username = "testuser";
-		RepositoryDto repo1 = new RepositoryDto();
-		repo1.setName("repo1");
-		RepositoryDto repo2 = new RepositoryDto(); // This is a fork and should be filtered out
-		repo2.setName("repo2");
-		RepositoryDto[] repos = {repo1, repo2};
-		ResponseEntity<RepositoryDto[]> response = ResponseEntity.ok(repos);
-
-		when(restTemplate.exchange(
-				githubApiUrl + "/users/" + username + "/repos",
-				HttpMethod.GET,
-				null,
-				RepositoryDto[].class,
-				username))
-				.thenReturn(response);
+		onPage(githubApiUrl + "/users/" + username + "/repos?per_page=100")
+				.thenAnswer(json("[" + repository("repo1", false) + "," + repository("repo2", false) + "]"));
 
 		// Act
 		List<RepositoryDto> result = gitHubService.getUserRepositories(username);
@@ -69,16 +73,35 @@ public class GitHubServiceTest {
 		assertEquals("repo1", result.get(0).getName());
 	}
 
+	@Test
+	public void testGetUserRepositories_FollowsPagination() {
+		// Arrange
+		String username = "testuser";
+		String pageUrl = githubApiUrl + "/user/1/repos?per_page=100&page=";
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(HttpHeaders.LINK, "<" + pageUrl + "2>; rel=\"next\", <" + pageUrl + "3>; rel=\"last\"");
+		onPage(githubApiUrl + "/users/" + username + "/repos?per_page=100")
+				.thenAnswer(json("[" + repository("repo1", false) + "]", headers));
+		onPage(pageUrl + "2")
+				.thenAnswer(json("[" + repository("repo2", true) + "," + repository("repo3", false) + "]"));
+		onPage(pageUrl + "3")
+				.thenAnswer(json("[" + repository("repo4", false) + "]"));
+
+		// Act
+		List<RepositoryDto> result = gitHubService.getUserRepositories(username);
+
+		// Assert
+		assertEquals(3, result.size());
+		assertEquals("repo1", result.get(0).getName());
+		assertEquals("repo3", result.get(1).getName());
+		assertEquals("repo4", result.get(2).getName());
+	}
+
 	@Test
 	public void testGetUserRepositories_UserNotFound() {
 		// Arrange
 		String username = "testuser";
-		when(restTemplate.exchange(
-				githubApiUrl + "/users/" + username + "/repos",
-				HttpMethod.GET,
-				null,
-				RepositoryDto[].class,
-				username))
+		onPage(githubApiUrl + "/users/" + username + "/repos?per_page=100")
 				.thenThrow(new UserNotFoundException("User not found"));
 
 		// Act & Assert
@@ -92,12 +115,7 @@ public class GitHubServiceTest {
 	public void testGetUserRepositories_GitHubApiException() {
 		// Arrange
 		String username = "testuser";
-		when(restTemplate.exchange(
-				githubApiUrl + "/users/" + username + "/repos",
-				HttpMethod.GET,
-				null,
-				RepositoryDto[].class,
-				username))
+		onPage(githubApiUrl + "/users/" + username + "/repos?per_page=100")
 				.thenThrow(new GitHubApiException(HttpStatus.INTERNAL_SERVER_ERROR.toString()));
 
 		// Act & Assert
@@ -111,12 +129,7 @@ public class GitHubServiceTest {
 	public void testGetUserRepositories_NetworkError() {
 		// Arrange
 		String username = "testuser";
-		when(restTemplate.exchange(
-				githubApiUrl + "/users/" + username + "/repos",
-				HttpMethod.GET,
-				null,
-				RepositoryDto[].class,
-				username))
+		onPage(githubApiUrl + "/users/" + username + "/repos?per_page=100")
 				.thenThrow(new ResourceAccessException("Network error"));
 
 		// Act & Assert
@@ -131,16 +144,9 @@ public class GitHubServiceTest {
 		// Arrange
 		String username = "testuser";
 		String repositoryName = "repo1";
-		BranchDto branch1 = new BranchDto();
-		branch1.setName("main");
-		CommitDto commit1 = new CommitDto();
-		commit1.setSha("1234567890abcdef");
-		branch1.setCommit(commit1);
-		BranchDto[] branches = {branch1};
-		when(restTemplate.getForObject(
-				githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches",
-				BranchDto[].class))
-				.thenReturn(branches);
+		onPage(githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches?per_page=100")
+				.thenAnswer(json("[{\"name\":\"main\",\"protected\":false,"
+						+ "\"commit\":{\"sha\":\"1234567890abcdef\",\"url\":\"https://api.github.com/commits\"}}]"));
 
 		// Act
 		List<BranchDto> result = gitHubService.getRepositoryBranches(username, repositoryName);
@@ -156,9 +162,7 @@ public class GitHubServiceTest {
 		// Arrange
 		String username = "testuser";
 		String repositoryName = "repo1";
-		when(restTemplate.getForObject(
-				githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches",
-				BranchDto[].class))
+		onPage(githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches?per_page=100")
 				.thenReturn(null);
 
 		// Act
@@ -173,9 +177,7 @@ public class GitHubServiceTest {
 		// Arrange
 		String username = "testuser";
 		String repositoryName = "repo1";
-		when(restTemplate.getForObject(
-				githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches",
-				BranchDto[].class))
+		onPage(githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches?per_page=100")
 				.thenThrow(new GitHubApiException(HttpStatus.INTERNAL_SERVER_ERROR.toString()));
 
 		// Act & Assert
@@ -184,6 +186,77 @@ public class GitHubServiceTest {
 		});
 		assertEquals("500 INTERNAL_SERVER_ERROR", thrown.getMessage());
 	}
-}
 
+	@Test
+	public void testGetUserRepositories_CallRefused() {
+		// Arrange
+		String username = "testuser";
+		onPage(githubApiUrl + "/users/" + username + "/repos?per_page=100")
+				.thenThrow(new ResourceAccessException("I/O error",
+						new CallNotPermittedException("Circuit breaker open for GitHub endpoint /users/{user}/repos", 30)));
+
+		// Act & Assert
+		GitHubUnavailableException thrown = assertThrows(GitHubUnavailableException.class, () -> {
+			gitHubService.getUserRepositories(username);
+		});
+		assertEquals(30, thrown.getRetryAfterSeconds());
+	}
+
+	@Test
+	public void testGetRepositoryBranches_CallRefused() {
+		// Arrange
+		String username = "testuser";
+		String repositoryName = "repo1";
+		onPage(githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches?per_page=100")
+				.thenThrow(new ResourceAccessException("I/O error",
+						new CallNotPermittedException("Too many GitHub API calls in flight", 1)));
+
+		// Act & Assert
+		GitHubUnavailableException thrown = assertThrows(GitHubUnavailableException.class, () -> {
+			gitHubService.getRepositoryBranches(username, repositoryName);
+		});
+		assertEquals(1, thrown.getRetryAfterSeconds());
+	}
+
+	@Test
+	public void testGetRepositoryBranches_NetworkError() {
+		// Arrange
+		String username = "testuser";
+		String repositoryName = "repo1";
+		onPage(githubApiUrl + "/repos/" + username + "/" + repositoryName + "/branches?per_page=100")
+				.thenThrow(new ResourceAccessException("Network error"));
 
+		// Act & Assert
+		GitHubApiException thrown = assertThrows(GitHubApiException.class, () -> {
+			gitHubService.getRepositoryBranches(username, repositoryName);
+		});
+		assertEquals("Network error: Network error", thrown.getMessage());
+	}
+
+	private OngoingStubbing<Object> onPage(String url) {
+		return when(restTemplate.execute(eq(url), eq(HttpMethod.GET), any(RequestCallback.class),
+				ArgumentMatchers.<ResponseExtractor<Object>>any()));
+	}
+
+	private static Answer<Object> json(String body) {
+		return json(body, new HttpHeaders());
+	}
+
+	/**
+	 * Hands a response with the given body to the response extractor passed to {@link RestTemplate#execute}.
+	 */
+	private static Answer<Object> json(String body, HttpHeaders headers) {
+		return invocation -> {
+			MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8),
+					HttpStatus.OK);
+			response.getHeaders().putAll(headers);
+			ResponseExtractor<?> extractor = invocation.getArgument(3);
+			return extractor.extractData(response);
+		};
+	}
+
+	private static String repository(String name, boolean fork) {
+		return "{\"id\":1,\"name\":\"" + name + "\",\"owner\":{\"login\":\"testuser\",\"id\":2},"
+				+ "\"topics\":[\"java\"],\"fork\":" + fork + ",\"license\":null}";
+	}
+}
@@ -0,0 +1,99 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.util.Hedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class HedgerTest {
+
+    private ExecutorService executor;
+    private Hedger hedger;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        hedger = new Hedger(executor, true, 0.95, 10, 5);
+        // Recent calls took no time, so the hedge starts after the minimum delay
+        for (int i = 0; i < 5; i++) {
+            hedger.call(() -> "warmup", () -> "unused");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void testSlowCallIsAnsweredByHedge() {
+        // Arrange
+        CountDownLatch never = new CountDownLatch(1);
+
+        // Act
+        String result = hedger.call(() -> {
+            await(never);
+            return "slow";
+        }, () -> "hedge");
+
+        // Assert
+        assertEquals("hedge", result);
+        assertEquals(1, hedger.getHedgeCount());
+        assertEquals(1, hedger.getHedgeWinCount());
+    }
+
+    @Test
+    public void testFailedHedgeIsIgnored() {
+        // Act
+        String result = hedger.call(() -> {
+            sleep(100);
+            return "slow";
+        }, () -> {
+            throw new RateLimitExceededException("Shed");
+        });
+
+        // Assert
+        assertEquals("slow", result);
+        assertEquals(1, hedger.getHedgeCount());
+        assertEquals(0, hedger.getHedgeWinCount());
+    }
+
+    @Test
+    public void testErrorOfFirstAttemptIsReported() {
+        // Act & Assert
+        GitHubApiException e = assertThrows(GitHubApiException.class, () -> hedger.call(() -> {
+            sleep(100);
+            throw new GitHubApiException("GitHub API error: 502 BAD_GATEWAY");
+        }, () -> {
+            throw new RateLimitExceededException("Shed");
+        }));
+        assertTrue(e.getMessage().contains("502"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
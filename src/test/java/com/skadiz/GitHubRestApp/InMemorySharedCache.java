@@ -0,0 +1,36 @@
+package com.skadiz.GitHubRestApp;
+
+import com.skadiz.GitHubRestApp.cache.SharedCache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for the Redis {@link SharedCache}, shared by the replicas of a test. Expiry is not
+ * simulated; values and locks live until they are replaced or released.
+ */
+class InMemorySharedCache implements SharedCache {
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<String, String> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] get(String key) {
+        return values.get(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration timeToLive) {
+        values.put(key, value);
+    }
+
+    @Override
+    public boolean tryLock(String key, String owner, Duration lease) {
+        return locks.putIfAbsent(key, owner) == null;
+    }
+
+    @Override
+    public void unlock(String key, String owner) {
+        locks.remove(key, owner);
+    }
+}
@@ -0,0 +1,86 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skadiz.GitHubRestApp.cache.EncodedListing;
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.CommitDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.services.ListingEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ListingEncoderTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final ListingEncoder encoder = new ListingEncoder(new ObjectMapper(), new SimpleMeterRegistry(), true,
+            1024, clock());
+
+    @Test
+    public void testUnchangedListingKeepsLastModified() {
+        // Arrange
+        EncodedListing previous = encoder.encode(List.of(repository("main", "abc")));
+        now.addAndGet(90_000);
+
+        // Act
+        EncodedListing unchanged = encoder.encode(List.of(repository("main", "abc")), previous);
+        EncodedListing changed = encoder.encode(List.of(repository("main", "def")), previous);
+
+        // Assert
+        assertEquals(previous.eTag(false), unchanged.eTag(false));
+        assertEquals(previous.lastModified(), unchanged.lastModified());
+        assertEquals(Instant.ofEpochMilli(now.get()), unchanged.assembledAt());
+        assertNotEquals(previous.eTag(false), changed.eTag(false));
+        assertEquals(Instant.ofEpochSecond(now.get() / 1000), changed.lastModified());
+    }
+
+    @Test
+    public void testSmallListingIsNotCompressed() {
+        // Act
+        EncodedListing listing = encoder.encode(List.of(repository("main", "abc")));
+
+        // Assert
+        assertNull(listing.gzip());
+    }
+
+    private static RepositoryDto repository(String branchName, String sha) {
+        CommitDto commit = new CommitDto();
+        commit.setSha(sha);
+        BranchDto branch = new BranchDto();
+        branch.setName(branchName);
+        branch.setCommit(commit);
+        RepositoryDto repository = new RepositoryDto();
+        repository.setName("repo1");
+        repository.setBranches(List.of(branch));
+        return repository;
+    }
+
+    private Clock clock() {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.skadiz.GitHubRestApp.interceptors.MetricsInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.UpstreamMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+public class MetricsInterceptorTest {
+
+    private static final String API = "https://api.github.com";
+
+    private SimpleMeterRegistry registry;
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(new MetricsInterceptor(new UpstreamMetrics(registry))));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    public void testCallsAreTimedByEndpointTemplate() {
+        // Arrange
+        server.expect(requestTo(API + "/users/alice/repos?per_page=100"))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(API + "/users/bob/repos?per_page=100"))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(API + "/repos/alice/repo1/branches?per_page=100"))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        // Act
+        restTemplate.getForObject(API + "/users/alice/repos?per_page=100", String.class);
+        restTemplate.getForObject(API + "/users/bob/repos?per_page=100", String.class);
+        restTemplate.getForObject(API + "/repos/alice/repo1/branches?per_page=100", String.class);
+
+        // Assert
+        server.verify();
+        assertEquals(2, registry.get("github.upstream.requests")
+                .tags("endpoint", "/users/{username}/repos", "status", "200").timer().count());
+        assertEquals(1, registry.get("github.upstream.requests")
+                .tags("endpoint", "/repos/{owner}/{repo}/branches", "status", "200").timer().count());
+        assertEquals(0, registry.get("github.upstream.in_flight").gauge().value());
+    }
+
+    @Test
+    public void testRateLimitRefusalIsCountedApartFromOtherErrors() {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Remaining", "0");
+        server.expect(requestTo(API + "/users/alice/repos")).andRespond(withStatus(HttpStatus.FORBIDDEN).headers(headers));
+        server.expect(requestTo(API + "/users/ghost/repos")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        // Act
+        assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.getForObject(API + "/users/alice/repos", String.class));
+        assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.getForObject(API + "/users/ghost/repos", String.class));
+
+        // Assert
+        assertEquals(1, registry.get("github.upstream.errors").tag("reason", "rate_limited").counter().count());
+        assertEquals(1, registry.get("github.upstream.errors").tag("reason", "client_error").counter().count());
+    }
+}
@@ -0,0 +1,120 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.services.ListingEncoder;
+import com.skadiz.GitHubRestApp.services.PrewarmService;
+import com.skadiz.GitHubRestApp.services.RateLimitScheduler;
+import com.skadiz.GitHubRestApp.services.RepositoryAggregationService;
+import com.skadiz.GitHubRestApp.services.RepositoryCacheService;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PrewarmServiceTest {
+
+    private static final long TTL_MILLIS = 60_000;
+
+    private RepositoryAggregationService aggregationService;
+    private RateLimitScheduler rateLimitScheduler;
+    private RepositoryCacheService repositoryCacheService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        aggregationService = mock(RepositoryAggregationService.class);
+        rateLimitScheduler = mock(RateLimitScheduler.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        repositoryCacheService = new RepositoryCacheService(aggregationService,
+                new ListingEncoder(new ObjectMapper(), new SimpleMeterRegistry(), true, 1024), executor, true, 100,
+                TTL_MILLIS, 300_000, 10);
+        when(aggregationService.getRepositoriesWithBranches(anyString(), any()))
+                .thenReturn(List.of(new RepositoryDto()));
+        when(rateLimitScheduler.hasSpareQuota(anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void testFreshListingIsNotRefreshed() {
+        // Arrange
+        repositoryCacheService.getRepositoriesWithBranches("hotuser");
+        PrewarmService prewarmService = new PrewarmService(repositoryCacheService, rateLimitScheduler, 10, 20_000);
+
+        // Act
+        prewarmService.prewarm();
+
+        // Assert
+        verify(aggregationService, times(1)).getRepositoriesWithBranches(eq("hotuser"), any());
+        assertEquals(0, prewarmService.getRefreshCount());
+    }
+
+    @Test
+    public void testExpiringListingIsRefreshedWithLowPriority() {
+        // Arrange
+        List<RequestPriority> priorities = new ArrayList<>();
+        when(aggregationService.getRepositoriesWithBranches(eq("hotuser"), any())).thenAnswer(invocation -> {
+            priorities.add(RequestPriority.current());
+            return List.of(new RepositoryDto());
+        });
+        repositoryCacheService.getRepositoriesWithBranches("hotuser");
+        PrewarmService prewarmService = new PrewarmService(repositoryCacheService, rateLimitScheduler, 10,
+                TTL_MILLIS);
+
+        // Act
+        prewarmService.prewarm();
+
+        // Assert
+        assertEquals(List.of(RequestPriority.HIGH, RequestPriority.LOW), priorities);
+        assertEquals(1, prewarmService.getRefreshCount());
+    }
+
+    @Test
+    public void testNothingIsRefreshedWithoutSpareQuota() {
+        // Arrange
+        repositoryCacheService.getRepositoriesWithBranches("hotuser");
+        when(rateLimitScheduler.hasSpareQuota(anyLong())).thenReturn(false);
+        PrewarmService prewarmService = new PrewarmService(repositoryCacheService, rateLimitScheduler, 10,
+                TTL_MILLIS);
+
+        // Act
+        prewarmService.prewarm();
+
+        // Assert
+        verify(aggregationService, times(1)).getRepositoriesWithBranches(eq("hotuser"), any());
+    }
+
+    @Test
+    public void testRoundStopsOnceCallsAreShed() {
+        // Arrange
+        repositoryCacheService.getRepositoriesWithBranches("hotuser");
+        repositoryCacheService.getRepositoriesWithBranches("hotuser");
+        repositoryCacheService.getRepositoriesWithBranches("warmuser");
+        when(aggregationService.getRepositoriesWithBranches(eq("hotuser"), any()))
+                .thenThrow(new RateLimitExceededException("API rate limit exceeded. Please try again later.", 60));
+        PrewarmService prewarmService = new PrewarmService(repositoryCacheService, rateLimitScheduler, 10,
+                TTL_MILLIS);
+
+        // Act
+        prewarmService.prewarm();
+
+        // Assert
+        verify(aggregationService, times(1)).getRepositoriesWithBranches(eq("warmuser"), any());
+        assertEquals(0, prewarmService.getRefreshCount());
+    }
+}
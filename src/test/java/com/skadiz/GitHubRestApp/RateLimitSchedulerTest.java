@@ -0,0 +1,166 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.services.RateLimitScheduler;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimitSchedulerTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toMillis(1_700_000_000));
+    private final RateLimitScheduler scheduler = new RateLimitScheduler(List.of("token"), true, 10, 100, 5000,
+            clock());
+
+    @Test
+    public void testUnknownQuotaAdmitsCalls() {
+        // Act & Assert
+        for (int i = 0; i < 50; i++) {
+            assertDoesNotThrow(() -> scheduler.acquire(RequestPriority.LOW));
+        }
+        assertEquals(-1, scheduler.getRemaining());
+    }
+
+    @Test
+    public void testLowPriorityCallIsShedAtReserve() {
+        // Arrange
+        scheduler.record("token", HttpStatus.OK, rateLimitHeaders(50, 3600));
+
+        // Act
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> scheduler.acquire(RequestPriority.LOW));
+
+        // Assert
+        assertEquals(3600, exception.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> scheduler.acquire(RequestPriority.HIGH));
+        assertEquals(49, scheduler.getRemaining());
+    }
+
+    @Test
+    public void testCallIsShedWhenQuotaIsSpent() {
+        // Arrange
+        scheduler.record("token", HttpStatus.FORBIDDEN, rateLimitHeaders(0, 60));
+
+        // Act
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> scheduler.acquire(RequestPriority.HIGH));
+
+        // Assert
+        assertEquals(60, exception.getRetryAfterSeconds());
+    }
+
+    @Test
+    public void testGraphQlQuotaLeavesRestQuotaUnchanged() {
+        // Arrange
+        scheduler.record("token", HttpStatus.OK, rateLimitHeaders(4000, 3600));
+        HttpHeaders graphQl = rateLimitHeaders(0, 60);
+        graphQl.set("X-RateLimit-Resource", "graphql");
+
+        // Act
+        scheduler.record("token", HttpStatus.FORBIDDEN, graphQl);
+
+        // Assert
+        assertEquals(4000, scheduler.getRemaining());
+        assertDoesNotThrow(() -> scheduler.acquire(RequestPriority.LOW));
+    }
+
+    @Test
+    public void testSecondaryRateLimitPausesCallsUntilRetryAfter() {
+        // Arrange
+        HttpHeaders headers = rateLimitHeaders(4000, 3600);
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        scheduler.record("token", HttpStatus.TOO_MANY_REQUESTS, headers);
+
+        // Act
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> scheduler.acquire(RequestPriority.HIGH));
+        now.addAndGet(TimeUnit.SECONDS.toMillis(30));
+
+        // Assert
+        assertEquals(30, exception.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> scheduler.acquire(RequestPriority.HIGH));
+    }
+
+    @Test
+    public void testCallsArePacedOnceBurstIsSpent() {
+        // Arrange
+        scheduler.record("token", HttpStatus.OK, rateLimitHeaders(1000, 1000));
+        for (int i = 0; i < 10; i++) {
+            scheduler.acquire(RequestPriority.HIGH);
+        }
+
+        // Act & Assert
+        assertThrows(RateLimitExceededException.class, () -> scheduler.acquire(RequestPriority.LOW));
+        now.addAndGet(1100);
+        assertDoesNotThrow(() -> scheduler.acquire(RequestPriority.LOW));
+    }
+
+    @Test
+    public void testCallsGoToTokenWithMostHeadroom() {
+        // Arrange
+        RateLimitScheduler pool = new RateLimitScheduler(List.of("first", "second"), true, 10, 100, 5000, clock());
+        pool.record("first", HttpStatus.OK, rateLimitHeaders(200, 3600));
+        pool.record("second", HttpStatus.OK, rateLimitHeaders(4000, 3600));
+
+        // Act
+        String token = pool.acquire(RequestPriority.HIGH);
+
+        // Assert
+        assertEquals("second", token);
+        assertEquals(4199, pool.getRemaining());
+    }
+
+    @Test
+    public void testExhaustedTokenIsPausedUntilReset() {
+        // Arrange
+        RateLimitScheduler pool = new RateLimitScheduler(List.of("first", "second"), true, 10, 100, 5000, clock());
+        pool.record("first", HttpStatus.OK, rateLimitHeaders(4000, 3600));
+        pool.record("second", HttpStatus.OK, rateLimitHeaders(0, 60));
+
+        // Act & Assert
+        for (int i = 0; i < 10; i++) {
+            assertEquals("first", pool.acquire(RequestPriority.HIGH));
+        }
+        now.addAndGet(TimeUnit.SECONDS.toMillis(60));
+        assertEquals("second", pool.acquire(RequestPriority.HIGH));
+    }
+
+    private HttpHeaders rateLimitHeaders(long remaining, long resetInSeconds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Remaining", String.valueOf(remaining));
+        headers.set("X-RateLimit-Reset", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(now.get()) + resetInSeconds));
+        return headers;
+    }
+
+    private Clock clock() {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.GitHubTimeoutException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import com.skadiz.GitHubRestApp.services.ReactiveGitHubService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public class ReactiveGitHubServiceTest {
+
+    private static final String API = "https://api.github.test";
+
+    private final Map<String, Function<String, ClientResponse>> routes = new ConcurrentHashMap<>();
+
+    @Test
+    public void testGetRepositoriesWithBranches_FollowsPagesAndKeepsOrder() {
+        // Arrange
+        routes.put(API + "/users/octocat/repos?per_page=100", url -> json(
+                "[{\"name\":\"alpha\",\"fork\":false},{\"name\":\"forked\",\"fork\":true}]",
+                "<" + API + "/users/octocat/repos?per_page=100&page=2>; rel=\"next\", "
+                        + "<" + API + "/users/octocat/repos?per_page=100&page=2>; rel=\"last\""));
+        routes.put(API + "/users/octocat/repos?per_page=100&page=2", url -> json(
+                "[{\"name\":\"beta\",\"fork\":false}]", null));
+        routes.put(API + "/repos/octocat/alpha/branches?per_page=100", url -> json(
+                "[{\"name\":\"main\",\"commit\":{\"sha\":\"a1\"}}]", null));
+        routes.put(API + "/repos/octocat/beta/branches?per_page=100", url -> json(
+                "[{\"name\":\"main\",\"commit\":{\"sha\":\"b1\"}},{\"name\":\"dev\",\"commit\":{\"sha\":\"b2\"}}]",
+                null));
+
+        // Act
+        List<RepositoryDto> repositories = service(10000).getRepositoriesWithBranches("octocat").block();
+
+        // Assert
+        assertEquals(List.of("alpha", "beta"), repositories.stream().map(RepositoryDto::getName).toList());
+        assertEquals("a1", repositories.get(0).getBranches().get(0).getCommit().getSha());
+        assertEquals(2, repositories.get(1).getBranches().size());
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_UserNotFound() {
+        // Arrange
+        routes.put(API + "/users/ghost/repos?per_page=100",
+                url -> ClientResponse.create(HttpStatus.NOT_FOUND).build());
+
+        // Act & Assert
+        assertThrows(UserNotFoundException.class,
+                () -> service(10000).getRepositoriesWithBranches("ghost").block());
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_RateLimited() {
+        // Arrange
+        routes.put(API + "/users/octocat/repos?per_page=100", url -> ClientResponse.create(HttpStatus.FORBIDDEN)
+                .header("X-RateLimit-Remaining", "0")
+                .header(HttpHeaders.RETRY_AFTER, "42")
+                .build());
+
+        // Act
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> service(10000).getRepositoriesWithBranches("octocat").block());
+
+        // Assert
+        assertEquals(42, exception.getRetryAfterSeconds());
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_Timeout() {
+        // Arrange
+        WebClient slow = WebClient.builder()
+                .exchangeFunction(request -> Mono.delay(Duration.ofSeconds(5))
+                        .map(ignored -> json("[]", null)))
+                .build();
+        ReactiveGitHubService service = new ReactiveGitHubService(slow, API, 4, 4, 100);
+
+        // Act & Assert
+        assertThrows(GitHubTimeoutException.class, () -> service.getRepositoriesWithBranches("octocat").block());
+    }
+
+    private ReactiveGitHubService service(long timeoutMillis) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    String url = request.url().toString();
+                    Function<String, ClientResponse> route = routes.get(url);
+                    return Mono.just(route != null ? route.apply(url) : ClientResponse.create(HttpStatus.NOT_FOUND).build());
+                })
+                .build();
+        return new ReactiveGitHubService(webClient, API, 4, 4, timeoutMillis);
+    }
+
+    private static ClientResponse json(String body, String link) {
+        ClientResponse.Builder response = ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body);
+        if (link != null) {
+            response.header(HttpHeaders.LINK, link);
+        }
+        return response.build();
+    }
+}
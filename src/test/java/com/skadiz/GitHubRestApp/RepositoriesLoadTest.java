@@ -0,0 +1,166 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test: the whole application runs against a {@link FakeGitHubServer} serving recorded payloads
+ * with injected latency, 500 errors and secondary rate limits, while {@code /api/repositories/{username}} is driven
+ * at a fixed request rate. Requests sent during the warmup are not measured. The run fails if the latency or
+ * error-rate SLO is missed.
+ * <p>
+ * Excluded from {@code mvn test}; run with {@code mvn -Pload-test test}. Every knob is a system property, e.g.
+ * {@code -Dloadtest.rps=200 -Dloadtest.github-latency-ms=150 -Dloadtest.slo.p99-ms=2000}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class RepositoriesLoadTest {
+
+    private static final int RPS = Integer.getInteger("loadtest.rps", 20);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 20);
+    private static final int USERS = Integer.getInteger("loadtest.users", 25);
+    private static final long GITHUB_LATENCY_MILLIS = Long.getLong("loadtest.github-latency-ms", 80);
+    private static final double GITHUB_ERROR_RATE = Double.parseDouble(
+            System.getProperty("loadtest.github-error-rate", "0.002"));
+    private static final double GITHUB_RATE_LIMIT_RATE = Double.parseDouble(
+            System.getProperty("loadtest.github-rate-limit-rate", "0.001"));
+    private static final long LISTING_TTL_MILLIS = Long.getLong("loadtest.listing-ttl-ms", 5000);
+    private static final long SLO_P99_MILLIS = Long.getLong("loadtest.slo.p99-ms", 1500);
+    private static final double SLO_ERROR_RATE = Double.parseDouble(
+            System.getProperty("loadtest.slo.error-rate", "0.02"));
+
+    private static final FakeGitHubServer GITHUB = startGitHub();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void gitHubProperties(DynamicPropertyRegistry registry) {
+        registry.add("github.api.url", GITHUB::url);
+        // A short TTL keeps background refreshes, and with them GitHub calls, going during the run
+        registry.add("github.listing-cache.ttl-ms", () -> LISTING_TTL_MILLIS);
+    }
+
+    @AfterAll
+    static void stopGitHub() {
+        GITHUB.close();
+    }
+
+    @Test
+    public void testRepositoriesEndpointMeetsSlo() throws Exception {
+        // Arrange
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong failures = new AtomicLong();
+        Map<String, AtomicLong> outcomes = new ConcurrentSkipListMap<>();
+        int warmup = RPS * WARMUP_SECONDS;
+        int total = RPS * DURATION_SECONDS;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RPS;
+
+        // Act
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < warmup + total; i++) {
+                // Open model: requests start on schedule whether or not earlier ones have finished,
+                // and latency is measured from the scheduled start to avoid coordinated omission
+                long scheduled = start + i * intervalNanos;
+                long sleep = scheduled - System.nanoTime();
+                if (sleep > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                }
+                HttpRequest request = HttpRequest.newBuilder(
+                                URI.create("http://127.0.0.1:" + port + "/api/repositories/user" + (i % USERS)))
+                        .header("Accept", "application/json")
+                        .timeout(Duration.ofSeconds(30))
+                        .build();
+                boolean measured = i >= warmup;
+                executor.submit(() -> {
+                    if (!measured) {
+                        return client.send(request, HttpResponse.BodyHandlers.discarding());
+                    }
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        count(outcomes, String.valueOf(response.statusCode()));
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                        count(outcomes, e.getClass().getSimpleName());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failures.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - scheduled);
+                    return null;
+                });
+            }
+        }
+        double achievedRps = (warmup + total) / ((System.nanoTime() - start) / 1e9);
+
+        // Assert
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p50 = percentile(sorted, 0.50);
+        long p95 = percentile(sorted, 0.95);
+        long p99 = percentile(sorted, 0.99);
+        double errorRate = (double) failures.get() / total;
+        System.out.printf("Load test: %d requests at %d rps (achieved %.1f), p50=%d ms p95=%d ms p99=%d ms, "
+                        + "error rate=%.4f, outcomes=%s; GitHub calls=%d, injected errors=%d, injected rate limits=%d%n",
+                total, RPS, achievedRps, p50, p95, p99, errorRate, outcomes,
+                GITHUB.requestCount(), GITHUB.errorCount(), GITHUB.rateLimitCount());
+        assertTrue(p99 <= SLO_P99_MILLIS, "p99 latency " + p99 + " ms exceeds SLO of " + SLO_P99_MILLIS + " ms");
+        assertTrue(errorRate <= SLO_ERROR_RATE, "error rate " + errorRate + " exceeds SLO of " + SLO_ERROR_RATE);
+    }
+
+    private static void count(Map<String, AtomicLong> outcomes, String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index)));
+    }
+
+    private static FakeGitHubServer startGitHub() {
+        try {
+            return FakeGitHubServer.builder()
+                    .fixtures("fixtures/github")
+                    .latencyMillis(GITHUB_LATENCY_MILLIS)
+                    .errorRate(GITHUB_ERROR_RATE)
+                    .rateLimitRate(GITHUB_RATE_LIMIT_RATE)
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import com.skadiz.GitHubRestApp.dto.BranchDto;
+import com.skadiz.GitHubRestApp.dto.RepositoryDto;
+import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
+import com.skadiz.GitHubRestApp.exceptions.GitHubTimeoutException;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.services.GitHubGraphQlService;
+import com.skadiz.GitHubRestApp.services.GitHubService;
+import com.skadiz.GitHubRestApp.services.RepositoryAggregationService;
+import com.skadiz.GitHubRestApp.services.RepositoryQuery;
+import com.skadiz.GitHubRestApp.services.RepositoryStream;
+import com.skadiz.GitHubRestApp.util.Hedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RepositoryAggregationServiceTest {
+
+    private GitHubService gitHubService;
+    private GitHubGraphQlService gitHubGraphQlService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        gitHubService = mock(GitHubService.class);
+        gitHubGraphQlService = mock(GitHubGraphQlService.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_KeepsOrder() {
+        // Arrange
+        String username = "testuser";
+        List<RepositoryDto> repos = repositories(5);
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(repos));
+        when(gitHubService.getRepositoryBranches(eq(username), anyString())).thenAnswer(invocation -> {
+            String name = invocation.getArgument(1);
+            // Later repositories answer first
+            Thread.sleep(50L * (5 - Integer.parseInt(name.substring(4))));
+            return List.of(branch(name + "-main"));
+        });
+        RepositoryAggregationService service = service(5, 5000);
+
+        // Act
+        List<RepositoryDto> result = service.getRepositoriesWithBranches(username);
+
+        // Assert
+        assertEquals(5, result.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("repo" + i, result.get(i).getName());
+            assertEquals("repo" + i + "-main", result.get(i).getBranches().get(0).getName());
+        }
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_StartsBranchesBeforeNextPage() {
+        // Arrange
+        String username = "testuser";
+        CompletableFuture<List<RepositoryDto>> secondPage = new CompletableFuture<>();
+        RepositoryDto repo1 = new RepositoryDto();
+        repo1.setName("repo1");
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenReturn(List.of(CompletableFuture.completedFuture(repositories(1)), secondPage));
+        // The second page only arrives once the branches of the first page are being fetched
+        when(gitHubService.getRepositoryBranches(username, "repo0")).thenAnswer(invocation -> {
+            secondPage.complete(List.of(repo1));
+            return List.of();
+        });
+        when(gitHubService.getRepositoryBranches(username, "repo1")).thenReturn(List.of(branch("main")));
+        RepositoryAggregationService service = service(4, 5000);
+
+        // Act
+        List<RepositoryDto> result = service.getRepositoriesWithBranches(username);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("repo1", result.get(1).getName());
+        assertEquals("main", result.get(1).getBranches().get(0).getName());
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_RespectsConcurrencyCap() {
+        // Arrange
+        String username = "testuser";
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(repositories(20)));
+        when(gitHubService.getRepositoryBranches(eq(username), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return List.of();
+        });
+        RepositoryAggregationService service = service(3, 5000);
+
+        // Act
+        service.getRepositoriesWithBranches(username);
+
+        // Assert
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_SharedPermitsCapAggregationsTogether() throws Exception {
+        // Arrange
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        for (String username : List.of("user1", "user2", "user3")) {
+            when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(repositories(10)));
+        }
+        when(gitHubService.getRepositoryBranches(anyString(), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            return List.of();
+        });
+        RepositoryAggregationService service = service(5, 5000);
+        Semaphore permits = new Semaphore(2);
+        List<Future<List<RepositoryDto>>> aggregations = new ArrayList<>();
+
+        // Act
+        for (String username : List.of("user1", "user2", "user3")) {
+            aggregations.add(executor.submit(() -> RepositoryAggregationService.withLookupPermits(permits,
+                    () -> service.getRepositoriesWithBranches(username))));
+        }
+
+        // Assert
+        for (Future<List<RepositoryDto>> aggregation : aggregations) {
+            assertEquals(10, aggregation.get(5, TimeUnit.SECONDS).size());
+        }
+        assertTrue(maxInFlight.get() <= 2);
+        assertEquals(2, permits.availablePermits());
+    }
+
+    @Test
+    public void testStreamRepositoriesWithBranches_SubmitsLookupsWithinConcurrencyCap() throws Exception {
+        // Arrange
+        String username = "testuser";
+        AtomicInteger submitted = new AtomicInteger();
+        ExecutorService counting = new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                submitted.incrementAndGet();
+                executor.execute(command);
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return List.of();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return false;
+            }
+        };
+        CountDownLatch release = new CountDownLatch(1);
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(repositories(50)));
+        when(gitHubService.getRepositoryBranches(eq(username), anyString())).thenAnswer(invocation -> {
+            release.await();
+            return List.of();
+        });
+        RepositoryAggregationService service = new RepositoryAggregationService(gitHubService, gitHubGraphQlService,
+                "rest", counting, noHedging(), 3, 5000, new SimpleMeterRegistry());
+        AtomicInteger handedOut = new AtomicInteger();
+        RepositoryStream stream = service.streamRepositoriesWithBranches(username);
+
+        // Act
+        Future<?> consumer = executor.submit(() -> stream.forEach(repository -> handedOut.incrementAndGet()));
+        Thread.sleep(100);
+        int submittedWhileBlocked = submitted.get();
+        release.countDown();
+        consumer.get();
+
+        // Assert: the listing task and one task per concurrency slot
+        assertEquals(1 + 3, submittedWhileBlocked);
+        assertEquals(50, handedOut.get());
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_BranchLookupFails() {
+        // Arrange
+        String username = "testuser";
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(repositories(3)));
+        when(gitHubService.getRepositoryBranches(username, "repo0")).thenReturn(List.of());
+        when(gitHubService.getRepositoryBranches(username, "repo1"))
+                .thenThrow(new GitHubApiException("GitHub API error: 502 BAD_GATEWAY"));
+        when(gitHubService.getRepositoryBranches(username, "repo2")).thenReturn(List.of());
+        RepositoryAggregationService service = service(4, 5000);
+
+        // Act & Assert
+        GitHubApiException thrown = assertThrows(GitHubApiException.class,
+                () -> service.getRepositoriesWithBranches(username));
+        assertEquals("GitHub API error: 502 BAD_GATEWAY", thrown.getMessage());
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_DeadlineExceeded() {
+        // Arrange
+        String username = "testuser";
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(repositories(2)));
+        when(gitHubService.getRepositoryBranches(eq(username), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return List.of();
+        });
+        RepositoryAggregationService service = service(4, 100);
+
+        // Act & Assert
+        assertThrows(GitHubTimeoutException.class, () -> service.getRepositoriesWithBranches(username));
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_GraphQlFallsBackToRest() {
+        // Arrange
+        String username = "testuser";
+        when(gitHubGraphQlService.getRepositoriesWithBranches(username))
+                .thenThrow(new GitHubApiException("GitHub API error: 502 BAD_GATEWAY"));
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(repositories(1)));
+        when(gitHubService.getRepositoryBranches(username, "repo0")).thenReturn(List.of(branch("main")));
+        RepositoryAggregationService service = new RepositoryAggregationService(gitHubService, gitHubGraphQlService,
+                "graphql", executor, noHedging(), 4, 5000, new SimpleMeterRegistry());
+
+        // Act
+        List<RepositoryDto> result = service.getRepositoriesWithBranches(username);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("main", result.get(0).getBranches().get(0).getName());
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_RateLimitedGraphQlDoesNotFallBackToRest() {
+        // Arrange
+        String username = "testuser";
+        when(gitHubGraphQlService.getRepositoriesWithBranches(username))
+                .thenThrow(new RateLimitExceededException("API rate limit exceeded. Please try again later.", 60));
+        RepositoryAggregationService service = new RepositoryAggregationService(gitHubService, gitHubGraphQlService,
+                "graphql", executor, noHedging(), 4, 5000, new SimpleMeterRegistry());
+
+        // Act
+        RateLimitExceededException thrown = assertThrows(RateLimitExceededException.class,
+                () -> service.getRepositoriesWithBranches(username));
+
+        // Assert
+        assertEquals(60, thrown.getRetryAfterSeconds());
+        verifyNoInteractions(gitHubService);
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_ReusesBranchesOfUnchangedRepositories() {
+        // Arrange
+        String username = "testuser";
+        Instant pushed = Instant.parse("2024-04-01T08:00:00Z");
+        List<RepositoryDto> previous = repositories(2);
+        previous.forEach(repository -> {
+            repository.setPushedAt(pushed);
+            repository.setUpdatedAt(pushed);
+            repository.setBranches(List.of(branch("cached")));
+        });
+        List<RepositoryDto> current = repositories(2);
+        current.get(0).setPushedAt(pushed);
+        current.get(0).setUpdatedAt(pushed);
+        // repo1 was pushed to since the previous listing
+        current.get(1).setPushedAt(pushed.plusSeconds(60));
+        current.get(1).setUpdatedAt(pushed);
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(current));
+        when(gitHubService.getRepositoryBranches(username, "repo1")).thenReturn(List.of(branch("main")));
+        RepositoryAggregationService service = service(4, 5000);
+
+        // Act
+        List<RepositoryDto> result = service.getRepositoriesWithBranches(username, previous);
+
+        // Assert
+        assertEquals("cached", result.get(0).getBranches().get(0).getName());
+        assertEquals("main", result.get(1).getBranches().get(0).getName());
+        verify(gitHubService, never()).getRepositoryBranches(username, "repo0");
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_QueryLooksUpSelectedPageOnly() {
+        // Arrange
+        String username = "testuser";
+        // The second listing page never arrives, so the page must be complete without it
+        when(gitHubService.getUserRepositoryPages(username))
+                .thenReturn(List.of(CompletableFuture.completedFuture(repositories(12)), new CompletableFuture<>()));
+        when(gitHubService.getRepositoryBranches(eq(username), anyString())).thenReturn(List.of(branch("main")));
+        RepositoryQuery query = RepositoryQuery.of(List.of("REPO1*"), null, null, 2, 1);
+        RepositoryAggregationService service = service(4, 5000);
+
+        // Act
+        List<RepositoryDto> result = service.getRepositoriesWithBranches(username, null, query);
+
+        // Assert: repo1, repo10 and repo11 match, of which the second page of one holds repo10
+        assertEquals(1, result.size());
+        assertEquals("repo10", result.get(0).getName());
+        verify(gitHubService, times(1)).getRepositoryBranches(eq(username), anyString());
+        verify(gitHubService).getRepositoryBranches(username, "repo10");
+    }
+
+    @Test
+    public void testGetRepositoriesWithBranches_QueryWithoutBranchesLooksUpNone() {
+        // Arrange
+        String username = "testuser";
+        when(gitHubService.getUserRepositoryPages(username)).thenReturn(pages(repositories(3)));
+        RepositoryAggregationService service = service(4, 5000);
+
+        // Act
+        List<RepositoryDto> result = service.getRepositoriesWithBranches(username, null,
+                RepositoryQuery.of(null, null, "name", null, null));
+
+        // Assert
+        assertEquals(3, result.size());
+        verify(gitHubService, never()).getRepositoryBranches(eq(username), anyString());
+    }
+
+    private RepositoryAggregationService service(int maxConcurrency, long timeoutMillis) {
+        return new RepositoryAggregationService(gitHubService, gitHubGraphQlService, "rest", executor,
+                noHedging(), maxConcurrency, timeoutMillis, new SimpleMeterRegistry());
+    }
+
+    private Hedger noHedging() {
+        return new Hedger(executor, false, 0.95, 100, 20);
+    }
+
+    private static List<RepositoryDto> repositories(int count) {
+        List<RepositoryDto> repos = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            RepositoryDto repo = new RepositoryDto();
+            repo.setName("repo" + i);
+            repos.add(repo);
+        }
+        return repos;
+    }
+
+    @SafeVarargs
+    private static List<CompletableFuture<List<RepositoryDto>>> pages(List<RepositoryDto>... pages) {
+        List<CompletableFuture<List<RepositoryDto>>> result = new ArrayList<>();
+        for (List<RepositoryDto> page : pages) {
+            result.add(CompletableFuture.completedFuture(page));
+        }
+        return result;
+    }
+
+    private static BranchDto branch(String name) {
+        BranchDto branch = new BranchDto();
+        branch.setName(name);
+        return branch;
+    }
+}
@@ -0,0 +1,220 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.skadiz.GitHubRestApp.config.RestTemplateConfig;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.interceptors.CallNotPermittedException;
+import com.skadiz.GitHubRestApp.interceptors.CoalescingInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.ETagCacheInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.MetricsInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.RateLimitInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.ResilienceInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.SharedCacheInterceptor;
+import com.skadiz.GitHubRestApp.interceptors.UpstreamMetrics;
+import com.skadiz.GitHubRestApp.services.RateLimitScheduler;
+import com.skadiz.GitHubRestApp.util.CircuitBreaker;
+import com.skadiz.GitHubRestApp.util.RequestPriority;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ResilienceInterceptorTest {
+
+    private static final String BRANCHES = "https://api.github.com/repos/testuser/repo1/branches?per_page=100";
+    private static final String BRANCHES_ENDPOINT = "/repos/{owner}/{repo}/branches";
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    public void testCircuitOpensAfterFailuresAndClosesAfterProbe() {
+        // Arrange
+        ResilienceInterceptor interceptor = interceptor();
+        RestTemplate restTemplate = restTemplate(interceptor);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(times(4), requestTo(BRANCHES)).andRespond(withServerError());
+        server.expect(requestTo(BRANCHES)).andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> restTemplate.getForObject(BRANCHES, String.class));
+        }
+        ResourceAccessException refused = assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(BRANCHES, String.class));
+        CircuitBreaker.State whileOpen = interceptor.getState(BRANCHES_ENDPOINT);
+        now.addAndGet(1000);
+        String probe = restTemplate.getForObject(BRANCHES, String.class);
+
+        // Assert
+        server.verify();
+        assertInstanceOf(CallNotPermittedException.class, refused.getCause());
+        assertEquals(CircuitBreaker.State.OPEN, whileOpen);
+        assertEquals("[]", probe);
+        assertEquals(CircuitBreaker.State.CLOSED, interceptor.getState(BRANCHES_ENDPOINT));
+        assertEquals(1, interceptor.getCircuitOpenRejectionCount());
+    }
+
+    @Test
+    public void testRefusedCallIsServedFromCache() {
+        // Arrange
+        ResilienceInterceptor interceptor = interceptor();
+        ETagCacheInterceptor eTagCacheInterceptor = new ETagCacheInterceptor(true, 1024 * 1024);
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(eTagCacheInterceptor, interceptor));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc\"");
+        server.expect(requestTo(BRANCHES))
+                .andRespond(withSuccess("[{\"name\":\"main\"}]", MediaType.APPLICATION_JSON).headers(headers));
+        // Three failures out of the four calls in the window open the breaker
+        server.expect(times(3), requestTo(BRANCHES)).andRespond(withServerError());
+
+        // Act
+        restTemplate.getForObject(BRANCHES, String.class);
+        for (int i = 0; i < 3; i++) {
+            restTemplate.getForObject(BRANCHES, String.class);
+        }
+        String refused = restTemplate.getForObject(BRANCHES, String.class);
+
+        // Assert
+        server.verify();
+        assertEquals("[{\"name\":\"main\"}]", refused);
+        assertEquals(1, interceptor.getCircuitOpenRejectionCount());
+        assertEquals(4, eTagCacheInterceptor.getStaleIfErrorCount());
+    }
+
+    @Test
+    public void testRateLimitRefusalsDoNotOpenCircuit() {
+        // Arrange
+        ResilienceInterceptor interceptor = interceptor();
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(interceptor, (request, body, execution) -> {
+            throw new RateLimitExceededException("GitHub API rate limit exceeded");
+        }));
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            assertThrows(RateLimitExceededException.class, () -> restTemplate.getForObject(BRANCHES, String.class));
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, interceptor.getState(BRANCHES_ENDPOINT));
+        assertEquals(0, interceptor.getCircuitOpenRejectionCount());
+    }
+
+    @Test
+    public void testPacedCallsDoNotHoldBulkheadSlots() throws Exception {
+        // Arrange: one bulkhead slot given up on after 50 ms, while pacing spaces calls about 300 ms apart
+        ResilienceInterceptor interceptor = new ResilienceInterceptor(true, 1, 50, 50, 4, 4, 1000, Clock.systemUTC());
+        RateLimitScheduler scheduler = new RateLimitScheduler(List.of("token"), true, 1, 0, 5000, Clock.systemUTC());
+        HttpHeaders quota = new HttpHeaders();
+        quota.set("X-RateLimit-Remaining", "10");
+        quota.set("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 3));
+        scheduler.record("token", HttpStatus.OK, quota);
+        RestTemplate restTemplate = new RestTemplateConfig().restTemplate(new SimpleClientHttpRequestFactory(),
+                new CoalescingInterceptor(false), new SharedCacheInterceptor(null, 0, 0, 0, 0, Clock.systemUTC()),
+                new ETagCacheInterceptor(false, 0), interceptor, new RateLimitInterceptor(scheduler),
+                new MetricsInterceptor(new UpstreamMetrics(new SimpleMeterRegistry())));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        server.expect(times(3), requestTo(BRANCHES)).andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        // Act
+        List<Future<String>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 3; i++) {
+                calls.add(executor.submit(() -> restTemplate.getForObject(BRANCHES, String.class)));
+            }
+        }
+
+        // Assert
+        for (Future<String> call : calls) {
+            assertEquals("[]", call.get());
+        }
+        server.verify();
+        assertEquals(0, interceptor.getBulkheadRejectionCount());
+    }
+
+    @Test
+    public void testRefusedCallsDoNotSpendRateLimit() {
+        // Arrange: a bucket of five calls refilled about once every four seconds, and no waiting for a turn
+        ResilienceInterceptor interceptor = interceptor();
+        RateLimitScheduler scheduler = new RateLimitScheduler(List.of("token"), true, 5, 0, 0, Clock.systemUTC());
+        HttpHeaders quota = new HttpHeaders();
+        quota.set("X-RateLimit-Remaining", "1000");
+        quota.set("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 3600));
+        scheduler.record("token", HttpStatus.OK, quota);
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(new RateLimitInterceptor(scheduler), interceptor));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(times(4), requestTo(BRANCHES)).andRespond(withServerError());
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> restTemplate.getForObject(BRANCHES, String.class));
+        }
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            ResourceAccessException refused = assertThrows(ResourceAccessException.class,
+                    () -> restTemplate.getForObject(BRANCHES, String.class));
+            assertInstanceOf(CallNotPermittedException.class, refused.getCause());
+        }
+
+        // Assert
+        server.verify();
+        assertEquals(CircuitBreaker.State.OPEN, interceptor.getState(BRANCHES_ENDPOINT));
+        assertEquals(996, scheduler.getRemaining());
+        assertEquals("token", scheduler.acquire(RequestPriority.LOW));
+    }
+
+    private ResilienceInterceptor interceptor() {
+        return new ResilienceInterceptor(true, 8, 100, 50, 4, 4, 1000, clock());
+    }
+
+    private static RestTemplate restTemplate(ResilienceInterceptor interceptor) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(interceptor));
+        return restTemplate;
+    }
+
+    private Clock clock() {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+    }
+}
@@ -3,18 +3,22 @@ package com.skadiz.GitHubRestApp;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
-import com.skadiz.GitHubRestApp.dto.RepositoryDto;
 import com.skadiz.GitHubRestApp.exceptions.GitHubApiException;
 import com.skadiz.GitHubRestApp.services.GitHubService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.Executors;
+
 @SpringBootTest
 public class RestTemplateConfigTest {
 
@@ -27,21 +31,17 @@ public class RestTemplateConfigTest {
     @BeforeEach
     public void setUp() {
         restTemplate = mock(RestTemplate.class);
-        gitHubService = new GitHubService(restTemplate, githubApiUrl);
+        gitHubService = new GitHubService(restTemplate, githubApiUrl, Executors.newVirtualThreadPerTaskExecutor(), 4);
     }
 
     @Test
     public void testGetUserRepositories_UnauthorizedException() {
         // Arrange
         String username = "testuser";
-        String url = githubApiUrl + "/users/" + username + "/repos";
-
-        when(restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                null,
-                RepositoryDto[].class,
-                username))
+        String url = githubApiUrl + "/users/" + username + "/repos?per_page=100";
+
+        when(restTemplate.execute(eq(url), eq(HttpMethod.GET), any(RequestCallback.class),
+                ArgumentMatchers.<ResponseExtractor<Object>>any()))
                 .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
 
         // Act & Assert
@@ -0,0 +1,131 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.skadiz.GitHubRestApp.cache.SharedCache;
+import com.skadiz.GitHubRestApp.interceptors.SharedCacheInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SharedCacheInterceptorTest {
+
+    private static final String URL = "https://api.github.com/users/testuser/repos?per_page=100";
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final InMemorySharedCache sharedCache = new InMemorySharedCache();
+
+    @Test
+    public void testResponseFetchedByOneReplicaIsServedToAnother() {
+        // Arrange
+        SharedCacheInterceptor first = interceptor(sharedCache);
+        SharedCacheInterceptor second = interceptor(sharedCache);
+        RestTemplate firstReplica = restTemplate(first);
+        RestTemplate secondReplica = restTemplate(second);
+        MockRestServiceServer firstServer = MockRestServiceServer.bindTo(firstReplica).build();
+        MockRestServiceServer secondServer = MockRestServiceServer.bindTo(secondReplica).build();
+        firstServer.expect(once(), requestTo(URL)).andRespond(withSuccess("[1]", MediaType.APPLICATION_JSON));
+
+        // Act
+        String fetched = firstReplica.getForObject(URL, String.class);
+        String shared = secondReplica.getForObject(URL, String.class);
+
+        // Assert
+        firstServer.verify();
+        secondServer.verify();
+        assertEquals("[1]", fetched);
+        assertEquals("[1]", shared);
+        assertEquals(1, first.getMissCount());
+        assertEquals(1, second.getHitCount());
+    }
+
+    @Test
+    public void testStaleResponseIsServedWhileAnotherReplicaHoldsTheLock() {
+        // Arrange
+        RestTemplate firstReplica = restTemplate(interceptor(sharedCache));
+        MockRestServiceServer firstServer = MockRestServiceServer.bindTo(firstReplica).build();
+        firstServer.expect(once(), requestTo(URL)).andRespond(withSuccess("[1]", MediaType.APPLICATION_JSON));
+        firstReplica.getForObject(URL, String.class);
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+        sharedCache.tryLock(URL, "another-replica", Duration.ofSeconds(10));
+        SharedCacheInterceptor second = interceptor(sharedCache);
+        RestTemplate secondReplica = restTemplate(second);
+        MockRestServiceServer secondServer = MockRestServiceServer.bindTo(secondReplica).build();
+
+        // Act
+        String stale = secondReplica.getForObject(URL, String.class);
+
+        // Assert
+        secondServer.verify();
+        assertEquals("[1]", stale);
+        assertEquals(1, second.getStaleHitCount());
+    }
+
+    @Test
+    public void testUnreachableSharedCacheIsBypassed() {
+        // Arrange
+        SharedCache unreachable = new InMemorySharedCache() {
+            @Override
+            public byte[] get(String key) {
+                throw new IllegalStateException("Connection refused");
+            }
+
+            @Override
+            public boolean tryLock(String key, String owner, Duration lease) {
+                throw new IllegalStateException("Connection refused");
+            }
+        };
+        RestTemplate replica = restTemplate(interceptor(unreachable));
+        MockRestServiceServer server = MockRestServiceServer.bindTo(replica).build();
+        server.expect(once(), requestTo(URL)).andRespond(withSuccess("[1]", MediaType.APPLICATION_JSON));
+
+        // Act
+        String fetched = replica.getForObject(URL, String.class);
+
+        // Assert
+        server.verify();
+        assertEquals("[1]", fetched);
+    }
+
+    private SharedCacheInterceptor interceptor(SharedCache cache) {
+        // The wait has to run out at once, since the test clock does not move while polling
+        return new SharedCacheInterceptor(cache, 60_000, 300_000, 10_000, 0, clock());
+    }
+
+    private static RestTemplate restTemplate(SharedCacheInterceptor interceptor) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setInterceptors(List.of(interceptor));
+        return restTemplate;
+    }
+
+    private Clock clock() {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+    }
+}
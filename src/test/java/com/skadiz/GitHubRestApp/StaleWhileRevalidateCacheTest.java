@@ -0,0 +1,273 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import com.skadiz.GitHubRestApp.cache.StaleWhileRevalidateCache;
+import com.skadiz.GitHubRestApp.exceptions.RateLimitExceededException;
+import com.skadiz.GitHubRestApp.exceptions.UserNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class StaleWhileRevalidateCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void testFreshEntryIsServedWithoutLoading() {
+        // Arrange
+        StaleWhileRevalidateCache<String, String> cache = cache(key -> key + loads.incrementAndGet(), 10);
+        cache.get("user");
+        now.addAndGet(999);
+
+        // Act
+        String value = cache.get("user");
+
+        // Assert
+        assertEquals("user1", value);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testStaleEntryIsServedWhileRefreshing() throws Exception {
+        // Arrange
+        CountDownLatch allowRefresh = new CountDownLatch(1);
+        StaleWhileRevalidateCache<String, String> cache = cache(key -> {
+            int load = loads.incrementAndGet();
+            if (load == 2) {
+                try {
+                    allowRefresh.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return key + load;
+        }, 10);
+        cache.get("user");
+        now.addAndGet(1500);
+
+        // Act
+        String stale = cache.get("user");
+        String alsoStale = cache.get("user");
+        allowRefresh.countDown();
+        Thread.sleep(100);
+        String refreshedValue = cache.get("user");
+
+        // Assert
+        assertEquals("user1", stale);
+        assertEquals("user1", alsoStale);
+        assertEquals("user2", refreshedValue);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testExpiredEntryIsReloaded() {
+        // Arrange
+        StaleWhileRevalidateCache<String, String> cache = cache(key -> key + loads.incrementAndGet(), 10);
+        cache.get("user");
+        now.addAndGet(5000);
+
+        // Act
+        String value = cache.get("user");
+
+        // Assert
+        assertEquals("user2", value);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        StaleWhileRevalidateCache<String, String> cache = cache(key -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return key;
+        }, 10);
+        List<Future<String>> callers = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            callers.add(executor.submit(() -> cache.get("user")));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        for (Future<String> caller : callers) {
+            assertEquals("user", caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        // Arrange
+        StaleWhileRevalidateCache<String, String> cache = cache(key -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new UserNotFoundException("User not found");
+            }
+            return key;
+        }, 10);
+
+        // Act & Assert
+        assertThrows(UserNotFoundException.class, () -> cache.get("user"));
+        assertEquals("user", cache.get("user"));
+    }
+
+    @Test
+    public void testRefreshWaitsForTheLoadInFlight() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        StaleWhileRevalidateCache<String, String> cache = cache(key -> {
+            int load = loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return key + load;
+        }, 10);
+        Future<String> miss = executor.submit(() -> cache.get("user"));
+        Thread.sleep(100);
+
+        // Act
+        Future<String> refresh = executor.submit(() -> cache.refresh("user"));
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        assertEquals("user1", miss.get(5, TimeUnit.SECONDS));
+        assertEquals("user1", refresh.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testFailedRefreshDoesNotFailWaitingCallers() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        StaleWhileRevalidateCache<String, String> cache = cache(key -> {
+            if (loads.incrementAndGet() == 1) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new RateLimitExceededException("Refresh shed", -1);
+            }
+            return key;
+        }, 10);
+        Future<String> refresh = executor.submit(() -> cache.refresh("user"));
+        Thread.sleep(100);
+
+        // Act
+        Future<String> miss = executor.submit(() -> cache.get("user"));
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        assertEquals("user", miss.get(5, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> refresh.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RateLimitExceededException.class, failure.getCause());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testRejectedRefreshIsNotLeftInFlight() {
+        // Arrange
+        StaleWhileRevalidateCache<String, String> cache = new StaleWhileRevalidateCache<>(
+                key -> key + loads.incrementAndGet(), command -> {
+                    throw new RejectedExecutionException("Executor shut down");
+                }, 10, 1000, 2000, clock());
+        cache.get("user");
+        now.addAndGet(1500);
+
+        // Act
+        String stale = cache.get("user");
+        now.addAndGet(5000);
+
+        // Assert
+        assertEquals("user1", stale);
+        assertEquals("user2", assertTimeoutPreemptively(Duration.ofSeconds(5), () -> cache.get("user")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        // Arrange
+        StaleWhileRevalidateCache<String, String> cache = cache(key -> key + loads.incrementAndGet(), 2);
+        cache.get("a");
+        cache.get("b");
+        cache.get("a");
+
+        // Act
+        cache.get("c");
+        cache.get("b");
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertEquals(4, loads.get());
+    }
+
+    private StaleWhileRevalidateCache<String, String> cache(Function<String, String> loader,
+                                                           int maxEntries) {
+        return new StaleWhileRevalidateCache<>(loader, executor, maxEntries, 1000, 2000, clock());
+    }
+
+    private Clock clock() {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.skadiz.GitHubRestApp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.skadiz.GitHubRestApp.cache.TopKTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class TopKTrackerTest {
+
+    @Test
+    public void testFrequentKeysSurviveAStreamOfRareOnes() {
+        // Arrange
+        TopKTracker<String> tracker = new TopKTracker<>(10);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            tracker.record("rare" + i);
+            if (i % 3 == 0) {
+                tracker.record("hot");
+            }
+            if (i % 5 == 0) {
+                tracker.record("warm");
+            }
+        }
+
+        // Assert
+        assertEquals(List.of("hot", "warm"), tracker.top(2));
+        assertEquals(10, tracker.size());
+    }
+
+    @Test
+    public void testDecayForgetsKeysThatStopOccurring() {
+        // Arrange
+        TopKTracker<String> tracker = new TopKTracker<>(10);
+        for (int i = 0; i < 8; i++) {
+            tracker.record("old");
+        }
+        tracker.record("once");
+
+        // Act
+        tracker.decay();
+        tracker.decay();
+        for (int i = 0; i < 3; i++) {
+            tracker.record("new");
+        }
+
+        // Assert
+        assertEquals(List.of("new", "old"), tracker.top(5));
+    }
+}